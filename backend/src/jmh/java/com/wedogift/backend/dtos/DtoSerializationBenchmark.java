@@ -0,0 +1,51 @@
+package com.wedogift.backend.dtos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the companies listing, each company with a few employees
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    private static final int EMPLOYEES_PER_COMPANY = 5;
+
+    @Param({"10", "100", "1000"})
+    private int companyCount;
+
+    private ObjectWriter writer;
+    private List<DisplayCompanyDto> companies;
+
+    @Setup
+    public void setUp() {
+        //same modules as the ObjectMapper built by Spring Boot
+        writer = new ObjectMapper().findAndRegisterModules().writerFor(DisplayCompanyDto[].class);
+        companies = new ArrayList<>(companyCount);
+        for (int i = 0; i < companyCount; i++) {
+            List<DisplayEmployeeDto> employees = new ArrayList<>(EMPLOYEES_PER_COMPANY);
+            for (int j = 0; j < EMPLOYEES_PER_COMPANY; j++) {
+                employees.add(DisplayEmployeeDto.builder().id(UUID.randomUUID()).name("Employee " + j).balance(10.0 * j).build());
+            }
+            companies.add(DisplayCompanyDto.builder().id(UUID.randomUUID()).name("Company " + i)
+                    .email("company" + i + "@wedoostore.com").balance(1000.0 + i).users(employees).build());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeCompanies() throws JsonProcessingException {
+        return writer.writeValueAsBytes(companies.toArray(DisplayCompanyDto[]::new));
+    }
+}
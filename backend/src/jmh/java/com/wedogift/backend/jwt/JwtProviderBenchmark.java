@@ -0,0 +1,67 @@
+package com.wedogift.backend.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing a token and of authenticating one request from its bearer token.
+ * legacyTripleParse reproduces the previous filter: three parses, each one rebuilding the key and the parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtProviderBenchmark {
+
+    private static final String SECRET = "mySecretKeymySecretKeymySecretKeymySecretKeymySecretKeymySecretKeymySecretKey";
+    private static final long VALIDITY_IN_MS = 3_600_000;
+
+    private JwtProvider cachedProvider;
+    private JwtProvider uncachedProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedProvider = new JwtProvider(SECRET, VALIDITY_IN_MS, 10_000);
+        uncachedProvider = new JwtProvider(SECRET, VALIDITY_IN_MS, 0);
+        token = cachedProvider.issueToken("tesla@wedoostore.com", "ROLE_USER");
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return cachedProvider.issueToken("tesla@wedoostore.com", "ROLE_USER");
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        String subject = legacyClaims(token).getSubject();
+        return legacyClaims(token).getSubject().equals(subject)
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public Optional<Claims> singleParse() {
+        return uncachedProvider.verify(token);
+    }
+
+    @Benchmark
+    public Optional<Claims> cachedVerify() {
+        return cachedProvider.verify(token);
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,64 @@
+package com.wedogift.backend.mappers;
+
+import com.wedogift.backend.dtos.AddCompanyDto;
+import com.wedogift.backend.dtos.DisplayCompanyDto;
+import com.wedogift.backend.dtos.DisplayEmployeeDto;
+import com.wedogift.backend.entities.CompanyEntity;
+import com.wedogift.backend.entities.EmployeeEntity;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO conversions of the MapStruct mappers, for a page of employees of the given size
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappersBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int employeeCount;
+
+    private CompaniesMapper companiesMapper;
+    private EmployeesMapper employeesMapper;
+    private CompanyEntity company;
+    private AddCompanyDto addCompanyDto;
+    private List<EmployeeEntity> employees;
+
+    @Setup
+    public void setUp() {
+        companiesMapper = Mappers.getMapper(CompaniesMapper.class);
+        employeesMapper = Mappers.getMapper(EmployeesMapper.class);
+        company = CompanyEntity.builder().id(UUID.randomUUID()).name("Tesla").email("tesla@wedoostore.com")
+                .password("secret").balance(100_000).build();
+        addCompanyDto = AddCompanyDto.builder().name("Tesla").email("tesla@wedoostore.com")
+                .password("secret").balance(1000.0).build();
+        employees = new ArrayList<>(employeeCount);
+        for (int i = 0; i < employeeCount; i++) {
+            employees.add(EmployeeEntity.builder().id(UUID.randomUUID()).name("Employee " + i).company(company).build());
+        }
+    }
+
+    @Benchmark
+    public DisplayCompanyDto companyToDto() {
+        return companiesMapper.toDto(company);
+    }
+
+    @Benchmark
+    public CompanyEntity companyToEntity() {
+        return companiesMapper.toEntity(addCompanyDto);
+    }
+
+    @Benchmark
+    public List<DisplayEmployeeDto> employeesToDto() {
+        return employees.stream().map(employeesMapper::toDto).toList();
+    }
+}
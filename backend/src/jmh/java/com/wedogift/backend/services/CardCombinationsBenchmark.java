@@ -0,0 +1,82 @@
+package com.wedogift.backend.services;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build of the combinations of a shop, sale of one card and search of an amount, for a stock of the given number of
+ * card values (up to 2000 cards each, about 50000 cards for 50 values) and amounts up to the given maximum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardCombinationsBenchmark {
+
+    @Param({"10", "50"})
+    private int cardValues;
+
+    @Param({"1000", "10000", "100000"})
+    private int maxAmount;
+
+    private Map<Integer, Integer> stock;
+    private int[] values;
+    private CardCombinations combinations;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom stockRandom = new SplittableRandom(42);
+        stock = new HashMap<>();
+        while (stock.size() < cardValues) {
+            stock.put(5 + stockRandom.nextInt(200), 1 + stockRandom.nextInt(2000));
+        }
+        values = stock.keySet().stream().mapToInt(Integer::intValue).toArray();
+        combinations = CardCombinations.of(stock, maxAmount);
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CardCombinations build() {
+        return CardCombinations.of(stock, maxAmount);
+    }
+
+    /**
+     * One card of a random value sold, its layer and the following ones are recomputed unless the value has more
+     * cards than any amount could use
+     */
+    @Benchmark
+    public CardCombinations sellCard() {
+        int value = values[random.nextInt(values.length)];
+        return combinations.withQuantity(value, combinations.quantity(value) - 1);
+    }
+
+    /**
+     * The last card of a random value sold, its layer and the following ones are always recomputed
+     */
+    @Benchmark
+    public CardCombinations sellLastCards() {
+        return combinations.withQuantity(values[random.nextInt(values.length)], 0);
+    }
+
+    @Benchmark
+    public List<Integer> searchFloor() {
+        OptionalInt floor = combinations.floor(1 + random.nextInt(maxAmount));
+        return floor.isPresent() ? combinations.cards(floor.getAsInt()) : List.of();
+    }
+
+    @Benchmark
+    public List<Integer> searchCeil() {
+        OptionalInt ceil = combinations.ceil(1 + random.nextInt(maxAmount));
+        return ceil.isPresent() ? combinations.cards(ceil.getAsInt()) : List.of();
+    }
+}
@@ -0,0 +1,90 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.BackendApplication;
+import com.wedogift.backend.dtos.*;
+import com.wedogift.backend.entities.EmployeeEntity;
+import com.wedogift.backend.repos.EmployeesRepo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading the balance of an employee through {@link CompaniesService#getEmployeeBalance} against a PostgreSQL
+ * container, by number of ledger entries appended after the employee's snapshot. Needs docker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeBalanceBenchmark {
+
+    private static final String COMPANY_EMAIL = "benchmark@wedoostore.com";
+    private static final int SNAPSHOTTED_DEPOSITS = 1_000;
+    private static final int BATCH_SIZE = 5_000;
+
+    @Param({"0", "10", "100", "1000", "10000"})
+    private int ledgerTail;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private CompaniesService companiesService;
+    private UUID employeeId;
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:14.1");
+        postgres.start();
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        //the schedulers are run by the setup only
+                        "app.ledger.snapshot-cron=-",
+                        "app.deposits.expiry-cron=-")
+                .run();
+        companiesService = context.getBean(CompaniesService.class);
+
+        UUID companyId = companiesService.addCompany(AddCompanyDto.builder().name("Benchmark").email(COMPANY_EMAIL)
+                .password("secret").balance(1_000_000.0).build());
+        employeeId = UUID.randomUUID();
+        context.getBean(EmployeesRepo.class).insertAll(companyId,
+                List.of(EmployeeEntity.builder().id(employeeId).name("Jessica").build()));
+
+        deposit(SNAPSHOTTED_DEPOSITS);
+        context.getBean(LedgerSnapshotScheduler.class).takeSnapshots();
+        deposit(ledgerTail);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public GetBalanceDto getEmployeeBalance() {
+        return companiesService.getEmployeeBalance(COMPANY_EMAIL, employeeId);
+    }
+
+    private void deposit(int deposits) {
+        for (int from = 0; from < deposits; from += BATCH_SIZE) {
+            List<BatchDepositItemDto> items = new ArrayList<>(BATCH_SIZE);
+            for (int i = from; i < Math.min(from + BATCH_SIZE, deposits); i++) {
+                items.add(BatchDepositItemDto.builder().employeeId(employeeId).depositDate(LocalDate.now())
+                        .balance(1.0).enumDepositType(EnumDepositType.GIFTS).build());
+            }
+            companiesService.depositBalanceToEmployees(COMPANY_EMAIL, BatchDepositDto.builder().deposits(items).build());
+        }
+    }
+}
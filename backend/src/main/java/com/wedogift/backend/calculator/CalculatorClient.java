@@ -0,0 +1,138 @@
+package com.wedogift.backend.calculator;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wedogift.backend.dtos.CardCombinationsDto;
+import com.wedogift.backend.exceptions.ResourceNotFoundException;
+import com.wedogift.backend.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * Client of the Node combination calculator (frontend/calculator-server).
+ * <p>
+ * The combinations are cached by (shop, amount): a hot amount is only requested once per ttl, and the concurrent
+ * lookups of an amount being requested wait for the same response. Failed requests are not cached, and the requests
+ * are refused by a circuit breaker while the calculator keeps failing.
+ * At most {@code app.calculator.max-queued-requests} requests wait for a connection, the others are refused, and a
+ * caller waits at most the connect and response timeouts for its response.
+ */
+@Slf4j
+@Component
+public class CalculatorClient {
+
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    // runs the requests, at most one per pooled connection
+    private final ThreadPoolExecutor requests;
+    private final Duration timeout;
+    private final AsyncLoadingCache<CombinationKey, CardCombinationsDto> combinations;
+
+    public CalculatorClient(@Qualifier("calculatorRestTemplate") RestTemplate restTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.calculator.max-connections}") int maxConnections,
+                            @Value("${app.calculator.max-queued-requests}") int maxQueuedRequests,
+                            @Value("${app.calculator.connect-timeout}") Duration connectTimeout,
+                            @Value("${app.calculator.response-timeout}") Duration responseTimeout,
+                            @Value("${app.calculator.cache-size}") long cacheSize,
+                            @Value("${app.calculator.cache-ttl}") Duration cacheTtl,
+                            @Value("${app.calculator.circuit-breaker.failure-threshold}") int failureThreshold,
+                            @Value("${app.calculator.circuit-breaker.open-duration}") Duration openDuration) {
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration, Clock.systemUTC());
+        this.requests = new ThreadPoolExecutor(maxConnections, maxConnections, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedRequests), new ThreadPoolExecutor.AbortPolicy());
+        this.timeout = connectTimeout.plus(responseTimeout);
+        this.combinations = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .executor(requests)
+                .recordStats()
+                .buildAsync(this::fetchCombination), "calculator");
+    }
+
+    /**
+     * Searches the combinations of cards of a shop closest to an amount
+     *
+     * @param shopId the id of the shop
+     * @param amount the amount in euros
+     * @return the combination equal to the amount, and the closest ones below and above it
+     */
+    public CardCombinationsDto searchCombination(long shopId, int amount) {
+        try {
+            return combinations.get(new CombinationKey(shopId, amount)).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many requests to the combination calculator");
+        } catch (TimeoutException e) {
+            // the request goes on, its response is still cached for the next lookups
+            throw new ServiceUnavailableException("Combination calculator unavailable");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the combination calculator");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new ServiceUnavailableException("Too many requests to the combination calculator");
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    CircuitBreaker.State getCircuitBreakerState() {
+        return circuitBreaker.getState();
+    }
+
+    int getQueuedRequests() {
+        return requests.getQueue().size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        requests.shutdown();
+    }
+
+    private CardCombinationsDto fetchCombination(CombinationKey key) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new ServiceUnavailableException("Combination calculator unavailable");
+        }
+        // any outcome other than a response is a failure, a trial call of a half open circuit always closes or reopens it
+        boolean answered = false;
+        try {
+            CardCombinationsDto result = restTemplate.getForObject("/shop/{shopId}/search-combination?amount={amount}",
+                    CardCombinationsDto.class, key.shopId(), key.amount());
+            answered = true;
+            return result;
+        } catch (HttpClientErrorException.BadRequest e) {
+            // the calculator answered, only the shop is unknown
+            answered = true;
+            throw new ResourceNotFoundException("Shop not found");
+        } catch (RestClientException e) {
+            log.warn("{} Combination calculator failed for shop {} amount {}: {}", "[APILOG]", key.shopId(),
+                    key.amount(), e.getMessage());
+            throw new ServiceUnavailableException("Combination calculator unavailable");
+        } finally {
+            if (answered) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+        }
+    }
+
+    private record CombinationKey(long shopId, int amount) {
+    }
+}
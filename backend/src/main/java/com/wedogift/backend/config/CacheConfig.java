@@ -0,0 +1,17 @@
+package com.wedogift.backend.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches are backed by Caffeine, their size and time to live are set by spring.cache.caffeine.spec
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Company principals keyed by email, read on each authenticated request
+     */
+    public static final String PRINCIPALS_CACHE = "principals";
+}
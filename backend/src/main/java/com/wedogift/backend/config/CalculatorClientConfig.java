@@ -0,0 +1,62 @@
+package com.wedogift.backend.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Client of the combination calculator: a pool of keep-alive connections, with timeouts on the wait for a pooled
+ * connection, on the connection and on the response
+ */
+@Configuration
+public class CalculatorClientConfig {
+
+    @Bean
+    public CloseableHttpClient calculatorHttpClient(@Value("${app.calculator.max-connections}") int maxConnections,
+                                                    @Value("${app.calculator.connect-timeout}") Duration connectTimeout,
+                                                    @Value("${app.calculator.response-timeout}") Duration responseTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnections)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                                .setSocketTimeout(Timeout.ofMilliseconds(responseTimeout.toMillis()))
+                                // Express closes the idle connections after 5 seconds
+                                .setValidateAfterInactivity(TimeValue.ofSeconds(1))
+                                .build())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeout.toMillis()))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(5))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate calculatorRestTemplate(RestTemplateBuilder restTemplateBuilder,
+                                               @Qualifier("calculatorHttpClient") CloseableHttpClient calculatorHttpClient,
+                                               @Value("${app.calculator.url}") String url,
+                                               @Value("${app.calculator.token}") String token) {
+        return restTemplateBuilder
+                .rootUri(url)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, token)
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(calculatorHttpClient))
+                .build();
+    }
+}
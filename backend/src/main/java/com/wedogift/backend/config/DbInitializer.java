@@ -1,34 +1,70 @@
 package com.wedogift.backend.config;
 
 import com.wedogift.backend.dtos.AddCompanyDto;
+import com.wedogift.backend.dtos.AddShopDto;
+import com.wedogift.backend.dtos.ShopCardDto;
 import com.wedogift.backend.services.CompaniesService;
+import com.wedogift.backend.services.ShopsService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resets the demo data at startup, not run with the skip-seed profile
+ */
 @Slf4j
 @Component
+@Profile("!skip-seed")
 public class DbInitializer implements CommandLineRunner {
 
     private final CompaniesService companiesService;
+    private final ShopsService shopsService;
+    private final boolean truncate;
 
-    public DbInitializer(CompaniesService companiesService) {
+    public DbInitializer(CompaniesService companiesService,
+                         ShopsService shopsService,
+                         @Value("${app.seed.truncate}") boolean truncate) {
         this.companiesService = companiesService;
+        this.shopsService = shopsService;
+        this.truncate = truncate;
     }
 
 
     @Override
     public void run(String... args) {
-        companiesService.deleteAllCompanies();
-        saveCompanyWithUser("Tesla", "tesla@wedoostore.com", 100.0, "John");
-        saveCompanyWithUser("Addidas", "addidas@wedoostore.com", 150.0, "James");
-        saveCompanyWithUser("Nike", "nike@wedoostore.com", 10.0, "Peter");
-        companiesService.getAllCompanies().forEach(t -> log.info("{} Company : {} ", "[APILOG]", t.name()));
+        long start = System.nanoTime();
+        if (truncate) {
+            companiesService.truncateAllCompanies();
+        } else {
+            companiesService.deleteAllCompanies();
+        }
+        long purged = System.nanoTime();
+        List<AddCompanyDto> companies = List.of(
+                company("Tesla", "tesla@wedoostore.com", 100.0, "John"),
+                company("Addidas", "addidas@wedoostore.com", 150.0, "James"),
+                company("Nike", "nike@wedoostore.com", 10.0, "Peter"));
+        List<UUID> companyIds = companiesService.addCompanies(companies);
+        //the demo shop is run by Tesla
+        shopsService.saveShop(AddShopDto.builder().id(5L).name("Wedoostore").companyId(companyIds.get(0)).cards(List.of(
+                card(20, 2), card(22, 1), card(25, 1), card(26, 1), card(35, 2), card(45, 1))).build());
+        long seeded = System.nanoTime();
+        log.info("{} Companies {} in {} ms, {} companies seeded in {} ms", "[APILOG]", truncate ? "truncated" : "deleted",
+                Duration.ofNanos(purged - start).toMillis(), companies.size(), Duration.ofNanos(seeded - purged).toMillis());
+    }
+
+    private static AddCompanyDto company(String companyName, String email, Double balance, String password) {
+        return AddCompanyDto.builder().name(companyName)
+                .email(email).balance(balance).password(password).build();
     }
 
-    private void saveCompanyWithUser(String companyName, String email, Double balance, String password) {
-        companiesService.addCompany(AddCompanyDto.builder().name(companyName)
-                .email(email).balance(balance).password(password).build());
+    private static ShopCardDto card(int value, int quantity) {
+        return ShopCardDto.builder().value(value).quantity(quantity).build();
     }
 
 }
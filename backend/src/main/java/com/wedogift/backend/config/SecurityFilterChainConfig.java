@@ -1,6 +1,7 @@
 package com.wedogift.backend.config;
 
 import com.wedogift.backend.jwt.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -11,6 +12,7 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 @Configuration
@@ -20,10 +22,13 @@ public class SecurityFilterChainConfig {
 
     private final AuthenticationProvider authenticationProvider;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final int managementPort;
 
-    public SecurityFilterChainConfig(AuthenticationProvider authenticationProvider, JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityFilterChainConfig(AuthenticationProvider authenticationProvider, JwtAuthenticationFilter jwtAuthenticationFilter,
+                                     @Value("${management.server.port:-1}") int managementPort) {
         this.authenticationProvider = authenticationProvider;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.managementPort = managementPort;
     }
 
     @Bean
@@ -34,7 +39,13 @@ public class SecurityFilterChainConfig {
                         .requestMatchers(HttpMethod.POST, "/api/v1/companies").permitAll()
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/swagger-ui/**"),
                                 AntPathRequestMatcher.antMatcher("/api-docs.yaml"),
-                                AntPathRequestMatcher.antMatcher("/v3/api-docs/**")
+                                AntPathRequestMatcher.antMatcher("/v3/api-docs/**"),
+                                AntPathRequestMatcher.antMatcher("/actuator/health")
+                        ).permitAll()
+                        //scraped by Prometheus without a token, only on the internal management port
+                        .requestMatchers(new AndRequestMatcher(
+                                request -> request.getLocalPort() == managementPort,
+                                AntPathRequestMatcher.antMatcher("/actuator/prometheus"))
                         ).permitAll()
                         .anyRequest().authenticated()
 
@@ -1,10 +1,17 @@
 package com.wedogift.backend.controllers;
 
 import com.wedogift.backend.dtos.AddEmployeeDto;
+import com.wedogift.backend.dtos.BatchDepositDto;
+import com.wedogift.backend.dtos.BatchDepositResultDto;
 import com.wedogift.backend.dtos.DepositBalanceDto;
 import com.wedogift.backend.dtos.DisplayEmployeeDto;
+import com.wedogift.backend.dtos.EmployeesPageDto;
+import com.wedogift.backend.dtos.EnumImportFormat;
 import com.wedogift.backend.dtos.GetBalanceDto;
+import com.wedogift.backend.dtos.ImportReportDto;
 import com.wedogift.backend.services.CompaniesService;
+import com.wedogift.backend.services.DepositCoalescer;
+import com.wedogift.backend.services.EmployeesImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -14,9 +21,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.security.Principal;
 import java.util.List;
 import java.util.UUID;
@@ -26,11 +37,19 @@ import java.util.UUID;
 @RequestMapping("/api/v1/employees")
 public class EmployeesController {
 
+    private static final String TEXT_CSV = "text/csv";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final CompaniesService companiesService;
+    private final EmployeesImportService employeesImportService;
+    private final DepositCoalescer depositCoalescer;
 
 
-    public EmployeesController(CompaniesService companiesService) {
+    public EmployeesController(CompaniesService companiesService, EmployeesImportService employeesImportService,
+                               DepositCoalescer depositCoalescer) {
         this.companiesService = companiesService;
+        this.employeesImportService = employeesImportService;
+        this.depositCoalescer = depositCoalescer;
 
     }
 
@@ -52,17 +71,42 @@ public class EmployeesController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(summary = "Import employees into a company",
+            description = "Import employees from a csv (one name per line, optional name header) "
+                    + "or a ndjson ({\"name\": ...} per line) body, streamed and inserted by batches",
+            tags = {"Employee-API"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "successful operation",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImportReportDto.class))),
+            @ApiResponse(responseCode = "404", description = "Company not found",
+                    content = @Content()),
+    })
+    @PostMapping(value = "import", consumes = {TEXT_CSV, APPLICATION_NDJSON})
+    public ResponseEntity<ImportReportDto> importEmployees(Principal principal,
+                                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                           InputStream body) throws IOException {
+        EnumImportFormat format = MediaType.valueOf(TEXT_CSV).isCompatibleWith(contentType) ? EnumImportFormat.CSV : EnumImportFormat.NDJSON;
+        return ResponseEntity.ok(employeesImportService.importEmployees(principal.getName(), format, body));
+    }
+
     @Operation(summary = "Returns the employees of a company",
-            description = "Returns the list of employees of company", tags = {"Employee-API"})
+            description = "Returns a page of the employees of company, ordered by id. "
+                    + "The next page is read by passing the nextPageToken of the current page", tags = {"Employee-API"})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "successful operation",
-                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = DisplayEmployeeDto.class)))),
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = EmployeesPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page token",
+                    content = @Content(schema = @Schema())),
             @ApiResponse(responseCode = "404", description = "Employee not found",
                     content = @Content(schema = @Schema())),
     })
     @GetMapping("")
-    public ResponseEntity<List<DisplayEmployeeDto>> getCompanyEmployees(Principal principal) {
-        return ResponseEntity.ok(companiesService.getCompanyEmplyees(principal.getName()));
+    public ResponseEntity<EmployeesPageDto> getCompanyEmployees(Principal principal,
+                                                                @Parameter(description = "maximum number of employees, up to 1000")
+                                                                @RequestParam(defaultValue = "100") int size,
+                                                                @Parameter(description = "nextPageToken of the previous page")
+                                                                @RequestParam(required = false) String pageToken) {
+        return ResponseEntity.ok(companiesService.getCompanyEmplyees(principal.getName(), size, pageToken));
     }
 
     @Operation(summary = "Get employee of a company by Id",
@@ -97,11 +141,28 @@ public class EmployeesController {
     public ResponseEntity<Void> depositEmployeeBalance(Principal principal,
                                                        @Parameter(description = "employeeId") @PathVariable UUID employeeId,
                                                        @Valid @RequestBody DepositBalanceDto depositBalanceDto) {
-        companiesService.depositBalanceToEmployee(principal.getName(), employeeId, depositBalanceDto);
+        depositCoalescer.deposit(principal.getName(), employeeId, depositBalanceDto);
         return ResponseEntity.noContent().build();
     }
 
 
+    @Operation(summary = "Add new balances to many employees",
+            description = "Add new balances to many employees, the company balance is debited once for the total. "
+                    + "Returns the result of each deposit in the order of the request",
+            tags = {"Employee-API"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "successful operation",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = BatchDepositResultDto.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters or not enough balance",
+                    content = @Content(schema = @Schema())),
+    })
+    @PostMapping("deposits")
+    public ResponseEntity<List<BatchDepositResultDto>> depositEmployeesBalance(Principal principal,
+                                                                               @Valid @RequestBody BatchDepositDto batchDepositDto) {
+        return ResponseEntity.ok(companiesService.depositBalanceToEmployees(principal.getName(), batchDepositDto));
+    }
+
+
     @Operation(summary = "Get employee balance",
             description = "Returns the employee balance",
             tags = {"Employee-API"})
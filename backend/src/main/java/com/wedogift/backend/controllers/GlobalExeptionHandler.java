@@ -8,8 +8,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.ArrayList;
 
@@ -21,11 +23,26 @@ public class GlobalExeptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorDto.builder().message(ex.getMessage()).status(HttpStatus.NOT_FOUND.value()).build());
     }
 
-    @ExceptionHandler({NotEnoughBalanceException.class, DuplicateResourceException.class})
-    public ResponseEntity<ErrorDto> handleFunctionalMessageException(NotEnoughBalanceException ex) {
+    @ExceptionHandler({NotEnoughBalanceException.class, DuplicateResourceException.class, InvalidParameterException.class})
+    public ResponseEntity<ErrorDto> handleFunctionalMessageException(RuntimeException ex) {
         return ResponseEntity.badRequest().body(ErrorDto.builder().message(ex.getMessage()).status(HttpStatus.BAD_REQUEST.value()).build());
     }
 
+    @ExceptionHandler({ForbiddenException.class})
+    public ResponseEntity<ErrorDto> handleForbiddenException(ForbiddenException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ErrorDto.builder().message(ex.getMessage()).status(HttpStatus.FORBIDDEN.value()).build());
+    }
+
+    @ExceptionHandler({ServiceUnavailableException.class})
+    public ResponseEntity<ErrorDto> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ErrorDto.builder().message(ex.getMessage()).status(HttpStatus.SERVICE_UNAVAILABLE.value()).build());
+    }
+
+    // Missing or malformed request and path parameters, such as a non numeric amount
+    @ExceptionHandler({MethodArgumentTypeMismatchException.class, MissingServletRequestParameterException.class})
+    public ResponseEntity<ErrorDto> handleInvalidRequestParameter(Exception ex) {
+        return ResponseEntity.badRequest().body(ErrorDto.builder().message(ex.getMessage()).status(HttpStatus.BAD_REQUEST.value()).build());
+    }
 
     // Default handler
     @ExceptionHandler(Exception.class)
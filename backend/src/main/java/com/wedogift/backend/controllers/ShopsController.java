@@ -0,0 +1,133 @@
+package com.wedogift.backend.controllers;
+
+import com.wedogift.backend.calculator.CalculatorClient;
+import com.wedogift.backend.dtos.CardCombinationsDto;
+import com.wedogift.backend.dtos.ShopCardDto;
+import com.wedogift.backend.exceptions.InvalidParameterException;
+import com.wedogift.backend.services.ShopsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+
+@Tag(name = "Shop-API", description = "The shop API")
+@RestController
+@RequestMapping("/api/v1/shops")
+public class ShopsController {
+
+    private final ShopsService shopsService;
+    private final CalculatorClient calculatorClient;
+
+    public ShopsController(ShopsService shopsService, CalculatorClient calculatorClient) {
+        this.shopsService = shopsService;
+        this.calculatorClient = calculatorClient;
+    }
+
+    @Operation(summary = "Search a combination of cards",
+            description = "Returns the combination of the fewest cards of the shop equal to the amount, " +
+                    "and the closest ones below and above it", tags = {"Shop-API"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "successful operation",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CardCombinationsDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid amount",
+                    content = @Content(schema = @Schema())),
+            @ApiResponse(responseCode = "404", description = "Shop not found",
+                    content = @Content(schema = @Schema())),
+    })
+    @GetMapping("/{shopId}/search-combination")
+    public ResponseEntity<CardCombinationsDto> searchCombination(@PathVariable long shopId,
+                                                                 @RequestParam int amount) {
+        return ResponseEntity.ok(shopsService.searchCombination(shopId, amount));
+    }
+
+    @Operation(summary = "Search a combination of cards with the calculator",
+            description = "Returns the combinations of the shop closest to the amount computed by the Node " +
+                    "combination calculator", tags = {"Shop-API"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "successful operation",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CardCombinationsDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid amount",
+                    content = @Content(schema = @Schema())),
+            @ApiResponse(responseCode = "404", description = "Shop not found",
+                    content = @Content(schema = @Schema())),
+            @ApiResponse(responseCode = "503", description = "Calculator unavailable",
+                    content = @Content(schema = @Schema())),
+    })
+    @GetMapping("/{shopId}/calculator/search-combination")
+    public ResponseEntity<CardCombinationsDto> searchCalculatorCombination(@PathVariable long shopId,
+                                                                           @RequestParam int amount) {
+        if (amount < 0) {
+            throw new InvalidParameterException("Invalid amount");
+        }
+        return ResponseEntity.ok(calculatorClient.searchCombination(shopId, amount));
+    }
+
+    @Operation(summary = "Search combinations of cards for many amounts",
+            description = "Returns the combinations of cards of the shop for each of the amounts, " +
+                    "or for each amount from the first to the last one", tags = {"Shop-API"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "successful operation, the combinations by amount"),
+            @ApiResponse(responseCode = "400", description = "Invalid amounts",
+                    content = @Content(schema = @Schema())),
+            @ApiResponse(responseCode = "404", description = "Shop not found",
+                    content = @Content(schema = @Schema())),
+    })
+    @GetMapping("/{shopId}/search-combinations")
+    public ResponseEntity<Map<Integer, CardCombinationsDto>> searchCombinations(@PathVariable long shopId,
+                                                                               @RequestParam(required = false) List<Integer> amounts,
+                                                                               @RequestParam(required = false) Integer from,
+                                                                               @RequestParam(required = false) Integer to) {
+        if (amounts != null && from == null && to == null) {
+            return ResponseEntity.ok(shopsService.searchCombinations(shopId, amounts));
+        }
+        if (amounts == null && from != null && to != null) {
+            return ResponseEntity.ok(shopsService.searchCombinations(shopId, from, to));
+        }
+        throw new InvalidParameterException("Either amounts or from and to are required");
+    }
+
+    @Operation(summary = "Restock cards", description = "Adds cards of a value to the stock of the shop", tags = {"Shop-API"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "successful operation, the new quantity in stock",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ShopCardDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters",
+                    content = @Content(schema = @Schema())),
+            @ApiResponse(responseCode = "403", description = "Shop not owned by the company",
+                    content = @Content(schema = @Schema())),
+            @ApiResponse(responseCode = "404", description = "Shop not found",
+                    content = @Content(schema = @Schema())),
+    })
+    @PostMapping("/{shopId}/cards/restock")
+    public ResponseEntity<ShopCardDto> restockCards(Principal principal,
+                                                    @PathVariable long shopId,
+                                                    @Valid @RequestBody ShopCardDto shopCardDto) {
+        return ResponseEntity.ok(shopsService.restockCards(principal.getName(), shopId, shopCardDto));
+    }
+
+    @Operation(summary = "Sell cards", description = "Removes sold cards of a value from the stock of the shop", tags = {"Shop-API"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "successful operation, the new quantity in stock",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ShopCardDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters or not enough cards in stock",
+                    content = @Content(schema = @Schema())),
+            @ApiResponse(responseCode = "403", description = "Shop not owned by the company",
+                    content = @Content(schema = @Schema())),
+            @ApiResponse(responseCode = "404", description = "Shop not found",
+                    content = @Content(schema = @Schema())),
+    })
+    @PostMapping("/{shopId}/cards/sell")
+    public ResponseEntity<ShopCardDto> sellCards(Principal principal,
+                                                 @PathVariable long shopId,
+                                                 @Valid @RequestBody ShopCardDto shopCardDto) {
+        return ResponseEntity.ok(shopsService.sellCards(principal.getName(), shopId, shopCardDto));
+    }
+}
@@ -1,5 +1,6 @@
 package com.wedogift.backend.dtos;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
@@ -8,5 +9,5 @@ import lombok.Builder;
 public record AddCompanyDto(@NotEmpty String name,
                             @NotEmpty String email,
                             @NotEmpty String password,
-                            @NotNull Double balance) {
+                            @NotNull @Digits(integer = 13, fraction = 2) Double balance) {
 }
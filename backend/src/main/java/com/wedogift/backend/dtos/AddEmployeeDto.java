@@ -1,8 +1,9 @@
 package com.wedogift.backend.dtos;
 
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.Builder;
 
 @Builder
-public record AddEmployeeDto(@NotEmpty String name) {
+public record AddEmployeeDto(@NotEmpty @Size(max = 255) String name) {
 }
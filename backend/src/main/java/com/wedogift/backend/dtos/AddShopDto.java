@@ -0,0 +1,16 @@
+package com.wedogift.backend.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+public record AddShopDto(@NotNull Long id,
+                         @NotEmpty String name,
+                         UUID companyId,
+                         @NotNull List<@Valid ShopCardDto> cards) {
+}
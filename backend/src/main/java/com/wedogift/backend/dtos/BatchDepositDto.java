@@ -0,0 +1,12 @@
+package com.wedogift.backend.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record BatchDepositDto(@NotEmpty @Size(max = 50000) List<@Valid BatchDepositItemDto> deposits) {
+}
@@ -0,0 +1,16 @@
+package com.wedogift.backend.dtos;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Builder
+public record BatchDepositItemDto(@NotNull UUID employeeId,
+                                  @NotNull LocalDate depositDate,
+                                  @NotNull @Positive @Digits(integer = 13, fraction = 2) Double balance,
+                                  @NotNull EnumDepositType enumDepositType) {
+}
@@ -0,0 +1,12 @@
+package com.wedogift.backend.dtos;
+
+import lombok.Builder;
+
+import java.util.UUID;
+
+@Builder
+public record BatchDepositResultDto(UUID employeeId,
+                                    Double balance,
+                                    EnumDepositStatus status,
+                                    String message) {
+}
@@ -0,0 +1,14 @@
+package com.wedogift.backend.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+
+/**
+ * Combinations of cards for an amount, the missing ones are left out of the response
+ */
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CardCombinationsDto(CardCombinationDto equal,
+                                  CardCombinationDto floor,
+                                  CardCombinationDto ceil) {
+}
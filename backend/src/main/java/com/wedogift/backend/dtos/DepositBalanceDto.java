@@ -1,12 +1,14 @@
 package com.wedogift.backend.dtos;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.Builder;
 
 import java.time.LocalDate;
 
 @Builder
 public record DepositBalanceDto(@NotNull LocalDate depositDate,
-                                @NotNull Double balance,
+                                @NotNull @Positive @Digits(integer = 13, fraction = 2) Double balance,
                                 @NotNull EnumDepositType enumDepositType) {
 }
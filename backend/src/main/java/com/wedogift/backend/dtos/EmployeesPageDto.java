@@ -0,0 +1,10 @@
+package com.wedogift.backend.dtos;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record EmployeesPageDto(List<DisplayEmployeeDto> employees,
+                               String nextPageToken) {
+}
@@ -0,0 +1,7 @@
+package com.wedogift.backend.dtos;
+
+public enum EnumDepositStatus {
+
+    DEPOSITED,
+    EMPLOYEE_NOT_FOUND
+}
@@ -1,7 +1,51 @@
 package com.wedogift.backend.dtos;
 
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+
 public enum EnumDepositType {
 
-    MEALS,
-    GIFTS
+    MEALS((short) 1) {
+        @Override
+        public LocalDate expirationDate(LocalDate depositDate) {
+            //meal deposits expires at the end of February of the year following the distribution date.
+            return YearMonth.of(depositDate.getYear() + 1, Month.FEBRUARY).atEndOfMonth();
+        }
+    },
+    GIFTS((short) 2) {
+        @Override
+        public LocalDate expirationDate(LocalDate depositDate) {
+            //Gift deposits has 365 days lifespan,
+            return depositDate.plusDays(365);
+        }
+    };
+
+    // stored code of the type, never reuse or change it
+    private final short code;
+
+    EnumDepositType(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static EnumDepositType fromCode(short code) {
+        for (EnumDepositType depositType : values()) {
+            if (depositType.code == code) {
+                return depositType;
+            }
+        }
+        throw new IllegalArgumentException("Unknown deposit type code " + code);
+    }
+
+    /**
+     * Returns the last day on which a deposit of this type is counted in the employee's balance
+     *
+     * @param depositDate the date of the deposit
+     * @return the expiration date (inclusive)
+     */
+    public abstract LocalDate expirationDate(LocalDate depositDate);
 }
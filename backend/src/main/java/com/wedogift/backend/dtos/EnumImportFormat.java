@@ -0,0 +1,9 @@
+package com.wedogift.backend.dtos;
+
+public enum EnumImportFormat {
+
+    // one employee name per line, with an optional "name" header
+    CSV,
+    // one AddEmployeeDto json object per line
+    NDJSON
+}
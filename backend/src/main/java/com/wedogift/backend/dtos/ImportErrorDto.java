@@ -0,0 +1,7 @@
+package com.wedogift.backend.dtos;
+
+import lombok.Builder;
+
+@Builder
+public record ImportErrorDto(long line, String message) {
+}
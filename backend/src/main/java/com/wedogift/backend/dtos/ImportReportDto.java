@@ -0,0 +1,11 @@
+package com.wedogift.backend.dtos;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record ImportReportDto(long imported,
+                              long rejected,
+                              List<ImportErrorDto> errors) {
+}
@@ -0,0 +1,11 @@
+package com.wedogift.backend.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Builder;
+
+@Builder
+public record ShopCardDto(@NotNull @Positive Integer value,
+                          @NotNull @PositiveOrZero Integer quantity) {
+}
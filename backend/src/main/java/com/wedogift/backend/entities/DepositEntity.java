@@ -1,10 +1,9 @@
 package com.wedogift.backend.entities;
 
+import com.wedogift.backend.dtos.EnumDepositType;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.util.UUID;
@@ -20,10 +19,20 @@ public class DepositEntity {
     @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "ID", nullable = false, insertable = false, updatable = false)
     protected UUID id;
-    private Double balance;
+    // in cents
+    private long balance;
     private LocalDate depositDate;
-    private String depositType;
-    @ManyToOne
+    private EnumDepositType depositType;
+    // Last day the deposit is counted in the employee's balance
+    @Column(name = "expires_on")
+    private LocalDate expiresOn;
+    // Whether the deposit has been removed from the employee's balance
+    @Builder.Default
+    @ColumnDefault("false")
+    private boolean expired = false;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "employee_id")
     private EmployeeEntity employee;
 }
@@ -0,0 +1,22 @@
+package com.wedogift.backend.entities;
+
+import com.wedogift.backend.dtos.EnumDepositType;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a deposit type as its smallint code
+ */
+@Converter(autoApply = true)
+public class DepositTypeConverter implements AttributeConverter<EnumDepositType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(EnumDepositType depositType) {
+        return depositType == null ? null : depositType.getCode();
+    }
+
+    @Override
+    public EnumDepositType convertToEntityAttribute(Short code) {
+        return code == null ? null : EnumDepositType.fromCode(code);
+    }
+}
@@ -0,0 +1,33 @@
+package com.wedogift.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Balance of an employee up to a ledger transaction.
+ * The current balance is the snapshot plus the ledger entries of the employee recorded by the transactions after it.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "employee_balance_snapshots")
+public class EmployeeBalanceSnapshotEntity {
+    @Id
+    @Column(name = "employee_id")
+    private UUID employeeId;
+    // the entries of the transactions before this one are included in the balance
+    @Column(name = "xact_id", nullable = false)
+    private long xactId;
+    // in cents
+    private long balance;
+    @Column(name = "taken_at", nullable = false)
+    private Instant takenAt;
+}
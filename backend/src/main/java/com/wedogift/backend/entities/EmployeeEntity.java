@@ -22,25 +22,15 @@ public class EmployeeEntity {
     @Column(name = "ID", nullable = false, insertable = false, updatable = false)
     protected UUID id;
     private String name;
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "company_id")
     private CompanyEntity company;
-    // List of deposits made by the employee
-    @OneToMany(mappedBy = "employee", cascade = CascadeType.ALL)
+    // List of deposits made by the employee, read only: deposits are inserted by employee reference
+    // and only removed with their employee
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "employee", cascade = CascadeType.REMOVE)
     private List<DepositEntity> deposits = new ArrayList<>();
-
-    public void addDeposit(DepositEntity depositEntity) {
-        if (null == deposits) {
-            deposits = new ArrayList<>();
-        }
-        deposits.add(depositEntity);
-        depositEntity.setEmployee(this);
-    }
-
-    public void removeDeposit(DepositEntity depositEntity) {
-        if (null != deposits) {
-            deposits.remove(depositEntity);
-        }
-        depositEntity.setEmployee(null);
-    }
 }
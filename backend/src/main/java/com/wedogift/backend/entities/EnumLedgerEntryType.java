@@ -0,0 +1,31 @@
+package com.wedogift.backend.entities;
+
+public enum EnumLedgerEntryType {
+
+    // amount taken from the balance of a company by a deposit
+    COMPANY_DEBIT((short) 1),
+    // amount of a deposit added to the balance of an employee
+    EMPLOYEE_CREDIT((short) 2),
+    // amount of an expired deposit removed from the balance of an employee
+    EXPIRATION((short) 3);
+
+    // stored code of the type, never reuse or change it
+    private final short code;
+
+    EnumLedgerEntryType(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static EnumLedgerEntryType fromCode(short code) {
+        for (EnumLedgerEntryType entryType : values()) {
+            if (entryType.code == code) {
+                return entryType;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ledger entry type code " + code);
+    }
+}
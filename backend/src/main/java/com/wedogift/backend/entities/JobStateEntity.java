@@ -0,0 +1,28 @@
+package com.wedogift.backend.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Progress of a scheduled job, everything strictly before the watermark, or up to the position in an ordered log,
+ * has already been processed
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "job_states")
+public class JobStateEntity {
+    @Id
+    private String name;
+    private LocalDate watermark;
+    private Long position;
+}
@@ -0,0 +1,48 @@
+package com.wedogift.backend.entities;
+
+import com.wedogift.backend.dtos.EnumDepositType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One movement of a balance. The ledger is append-only, entries are inserted in JDBC batches by
+ * {@link com.wedogift.backend.repos.LedgerRepoCustom} and never updated nor deleted.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "balance_ledger")
+public class LedgerEntryEntity {
+    // also the order of the entries
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "entry_type", nullable = false)
+    private EnumLedgerEntryType entryType;
+    @Column(name = "company_id")
+    private UUID companyId;
+    // null for the company debits
+    @Column(name = "employee_id")
+    private UUID employeeId;
+    @Column(name = "deposit_id")
+    private UUID depositId;
+    @Column(name = "deposit_type")
+    private EnumDepositType depositType;
+    // in cents, negative for debits and expirations
+    private long amount;
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+    // transaction which recorded the entry, set by the database
+    @Column(name = "xact_id", insertable = false, updatable = false)
+    private long xactId;
+}
@@ -0,0 +1,21 @@
+package com.wedogift.backend.entities;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a ledger entry type as its smallint code
+ */
+@Converter(autoApply = true)
+public class LedgerEntryTypeConverter implements AttributeConverter<EnumLedgerEntryType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(EnumLedgerEntryType entryType) {
+        return entryType == null ? null : entryType.getCode();
+    }
+
+    @Override
+    public EnumLedgerEntryType convertToEntityAttribute(Short code) {
+        return code == null ? null : EnumLedgerEntryType.fromCode(code);
+    }
+}
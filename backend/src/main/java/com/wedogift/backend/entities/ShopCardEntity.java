@@ -0,0 +1,29 @@
+package com.wedogift.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "shop_cards")
+public class ShopCardEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "ID", nullable = false, insertable = false, updatable = false)
+    protected UUID id;
+    // in euros
+    @Column(name = "card_value")
+    private int value;
+    // cards of this value in stock
+    private int quantity;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "shop_id")
+    private ShopEntity shop;
+}
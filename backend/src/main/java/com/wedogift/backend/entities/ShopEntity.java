@@ -0,0 +1,36 @@
+package com.wedogift.backend.entities;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "shops")
+public class ShopEntity {
+    // assigned, the shops are identified by the id of the shop platform
+    @Id
+    @Column(name = "ID", nullable = false, updatable = false)
+    private Long id;
+    private String name;
+    // company allowed to sell and restock the cards
+    @Column(name = "company_id")
+    private UUID companyId;
+    @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "shop", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<ShopCardEntity> cards = new ArrayList<>();
+
+    public void addCard(ShopCardEntity shopCardEntity) {
+        cards.add(shopCardEntity);
+        shopCardEntity.setShop(this);
+    }
+}
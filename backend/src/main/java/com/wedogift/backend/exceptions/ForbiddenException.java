@@ -0,0 +1,8 @@
+package com.wedogift.backend.exceptions;
+
+
+public class ForbiddenException extends RuntimeException {
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.wedogift.backend.exceptions;
+
+
+public class InvalidParameterException extends RuntimeException {
+    public InvalidParameterException(String message) {
+        super(message);
+    }
+}
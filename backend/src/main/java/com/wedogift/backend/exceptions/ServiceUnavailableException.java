@@ -0,0 +1,8 @@
+package com.wedogift.backend.exceptions;
+
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.wedogift.backend.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Verification of a bearer token and loading of the company principal
+ */
+@Name("com.wedogift.Authentication")
+@Label("Authentication")
+@Category({"WedooStore", "Security"})
+@StackTrace(false)
+public class AuthenticationEvent extends Event {
+
+    @Label("Company Id")
+    public String companyId;
+
+    @Label("Authenticated")
+    public boolean authenticated;
+}
@@ -0,0 +1,26 @@
+package com.wedogift.backend.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * A read of the balance of an employee
+ */
+@Name("com.wedogift.Balance")
+@Label("Employee Balance")
+@Category({"WedooStore", "Deposits"})
+@StackTrace(false)
+public class BalanceEvent extends Event {
+
+    @Label("Company Id")
+    public String companyId;
+
+    @Label("Employee Id")
+    public String employeeId;
+
+    @Label("Deposits Scanned")
+    @Description("Ledger entries after the snapshot of the employee and expired deposits not yet swept, read to compute the balance")
+    public long depositsScanned;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
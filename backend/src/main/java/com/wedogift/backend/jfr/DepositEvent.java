@@ -0,0 +1,31 @@
+package com.wedogift.backend.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * A deposit made by a company to one of its employees, or a batch of deposits made in one transaction
+ */
+@Name("com.wedogift.Deposit")
+@Label("Deposit")
+@Category({"WedooStore", "Deposits"})
+@StackTrace(false)
+public class DepositEvent extends Event {
+
+    @Label("Company Id")
+    public String companyId;
+
+    @Label("Deposit Type")
+    @Description("Type of a single deposit, null for a batch")
+    public String depositType;
+
+    @Label("Deposits")
+    @Description("Deposits made, more than one for a batch or coalesced deposits")
+    public int deposits;
+
+    @Label("Rows Touched")
+    @Description("Rows inserted or updated: company debit, deposits and ledger entries")
+    public int rowsTouched;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,63 @@
+package com.wedogift.backend.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Always-on flight recording started with the application when {@code app.jfr.recording.enabled} is true.
+ * The recording keeps the last {@code max-age} of events, up to {@code max-size}, and is written to
+ * {@code destination} when the application stops. It can be dumped at any time with
+ * {@code jcmd <pid> JFR.dump name=wedoostore filename=...} and opened with JDK Mission Control.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.jfr.recording.enabled", havingValue = "true")
+public class FlightRecording {
+
+    static final String RECORDING_NAME = "wedoostore";
+
+    private final Recording recording;
+    private final Path destination;
+
+    public FlightRecording(@Value("${app.jfr.recording.settings}") String settings,
+                           @Value("${app.jfr.recording.max-age}") Duration maxAge,
+                           @Value("${app.jfr.recording.max-size}") DataSize maxSize,
+                           @Value("${app.jfr.recording.destination}") Path destination) throws IOException, ParseException {
+        this.destination = destination;
+        this.recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSize.toBytes());
+        recording.setDumpOnExit(true);
+        recording.setDestination(destination);
+        recording.enable(DepositEvent.class);
+        recording.enable(BalanceEvent.class);
+        recording.enable(AuthenticationEvent.class);
+    }
+
+    @PostConstruct
+    public void start() {
+        recording.start();
+        log.info("{} flight recording started, written to {} on exit", "[APILOG]", destination);
+    }
+
+    @PreDestroy
+    public void stop() {
+        //writes the recording to its destination
+        recording.stop();
+        recording.close();
+    }
+}
@@ -1,6 +1,11 @@
 package com.wedogift.backend.jwt;
 
+import com.wedogift.backend.dtos.CompanyPrincipal;
+import com.wedogift.backend.jfr.AuthenticationEvent;
 import com.wedogift.backend.services.CompaniesService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +19,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -21,9 +28,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final CompaniesService companiesService;
 
-    public JwtAuthenticationFilter(JwtProvider jwtProvider, CompaniesService companiesService) {
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtAuthenticationFilter(JwtProvider jwtProvider, CompaniesService companiesService, MeterRegistry meterRegistry) {
         this.jwtProvider = jwtProvider;
         this.companiesService = companiesService;
+        this.authenticatedTimer = authenticationTimer(meterRegistry, "authenticated");
+        this.rejectedTimer = authenticationTimer(meterRegistry, "rejected");
+    }
+
+    private static Timer authenticationTimer(MeterRegistry registry, String result) {
+        return Timer.builder("wedoostore.auth.filter")
+                .description("Verification of the bearer token and loading of the company principal")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(registry);
     }
 
     @Override
@@ -37,13 +57,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        
+        long start = System.nanoTime();
+        AuthenticationEvent event = new AuthenticationEvent();
+        event.begin();
         String jwt = authHeader.substring(7);
-        String subject = jwtProvider.getSubject(jwt);
+        boolean authenticated = false;
+        try {
+            //the token is parsed and verified once, an invalid or expired token leaves the request unauthenticated
+            Optional<Claims> claims = jwtProvider.verify(jwt);
 
-        if (subject != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = companiesService.loadUserByUsername(subject);
-            if (jwtProvider.isTokenValid(jwt, userDetails.getUsername())) {
+            if (claims.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = companiesService.loadUserByUsername(claims.get().getSubject());
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities()
@@ -52,7 +76,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
                 SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+                if (userDetails instanceof CompanyPrincipal companyPrincipal) {
+                    event.companyId = companyPrincipal.id().toString();
+                }
             }
+            authenticated = claims.isPresent();
+        } finally {
+            //a failed company lookup is recorded as rejected
+            event.authenticated = authenticated;
+            event.commit();
+            (authenticated ? authenticatedTimer : rejectedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
         filterChain.doFilter(request, response);
 
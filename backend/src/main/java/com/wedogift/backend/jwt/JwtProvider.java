@@ -1,26 +1,47 @@
 package com.wedogift.backend.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtProvider {
 
-
-    @Value("${app.jwt.secret}")
-    private String secretKey;
-
-    @Value("${app.jwt.expiration-in-ms}")
-    private long validityInMilliseconds;
+    private final long validityInMilliseconds;
+
+    // The key and the parser are immutable and thread safe, they are built once
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    // Claims of the recently verified tokens, each entry expires with its token
+    private final Cache<String, Claims> verifiedTokens;
+
+    public JwtProvider(@Value("${app.jwt.secret}") String secretKey,
+                       @Value("${app.jwt.expiration-in-ms}") long validityInMilliseconds,
+                       @Value("${app.jwt.verified-tokens-cache-size}") long verifiedTokensCacheSize) {
+        this.validityInMilliseconds = validityInMilliseconds;
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokensCacheSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
 
 
     public String issueToken(String subject) {
@@ -39,31 +60,54 @@ public class JwtProvider {
                 .issuer("https://wedoostore.com")
                 .issuedAt(Date.from(Instant.now()))
                 .expiration(Date.from(Instant.now().plus(validityInMilliseconds, ChronoUnit.MILLIS)))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
 
 
     }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
-    }
-
-
-    public String getSubject(String jwtToken) {
-        return getClaims(jwtToken).getSubject();
-    }
-
-    private Claims getClaims(String jwtToken) {
-        return Jwts.parser().setSigningKey(getSigningKey()).build().parseSignedClaims(jwtToken).getPayload();
+    /**
+     * Verifies the signature and the expiration of a token. A token is parsed once, then its claims are
+     * served from a bounded cache until it expires.
+     *
+     * @param jwtToken the token to verify
+     * @return the claims of the token, empty if the token is invalid or expired
+     */
+    public Optional<Claims> verify(String jwtToken) {
+        Claims claims = verifiedTokens.getIfPresent(jwtToken);
+        if (claims == null) {
+            try {
+                claims = parser.parseSignedClaims(jwtToken).getPayload();
+            } catch (JwtException | IllegalArgumentException e) {
+                return Optional.empty();
+            }
+            if (claims.getExpiration() == null) {
+                return Optional.empty();
+            }
+            verifiedTokens.put(jwtToken, claims);
+        }
+        return isExpired(claims) ? Optional.empty() : Optional.of(claims);
     }
 
-    public boolean isTokenValid(String jwt, String username) {
-        String subject = getSubject(jwt);
-        return subject.equals(username) && !isTokenExpired(jwt);
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration().before(Date.from(Instant.now()));
     }
 
-    private boolean isTokenExpired(String jwt) {
-        return getClaims(jwt).getExpiration().before(Date.from(Instant.now()));
+    private static class TokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
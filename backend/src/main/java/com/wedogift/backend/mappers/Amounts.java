@@ -0,0 +1,32 @@
+package com.wedogift.backend.mappers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between the amounts of the API, in currency units with at most 2 decimals,
+ * and the amounts stored and computed by the backend, in cents.
+ */
+public final class Amounts {
+
+    private static final int CENTS_SCALE = 2;
+
+    private Amounts() {
+    }
+
+    /**
+     * @param amount an amount in currency units, the API validates that it has at most 2 decimals
+     * @return the amount in cents, rounded half even to the cent
+     */
+    public static long toCents(Double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(CENTS_SCALE).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    /**
+     * @param cents an amount in cents
+     * @return the amount in currency units
+     */
+    public static Double toAmount(long cents) {
+        return BigDecimal.valueOf(cents, CENTS_SCALE).doubleValue();
+    }
+}
@@ -2,15 +2,20 @@ package com.wedogift.backend.mappers;
 
 import com.wedogift.backend.dtos.AddCompanyDto;
 import com.wedogift.backend.dtos.DisplayCompanyDto;
+import com.wedogift.backend.dtos.DisplayEmployeeDto;
 import com.wedogift.backend.entities.CompanyEntity;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
-@Mapper(uses = {EmployeesMapper.class})
+import java.util.List;
+
+@Mapper(uses = {EmployeesMapper.class, Amounts.class})
 public interface CompaniesMapper {
 
     DisplayCompanyDto toDto(CompanyEntity companyEntity);
 
+    DisplayCompanyDto toDto(CompanyEntity companyEntity, List<DisplayEmployeeDto> users);
+
     @Mapping(target = "employees", ignore = true)
     CompanyEntity toEntity(AddCompanyDto addCompanyDto);
 }
@@ -3,12 +3,15 @@ package com.wedogift.backend.mappers;
 import com.wedogift.backend.dtos.AddEmployeeDto;
 import com.wedogift.backend.dtos.DisplayEmployeeDto;
 import com.wedogift.backend.entities.EmployeeEntity;
+import com.wedogift.backend.repos.EmployeesRepo;
 import org.mapstruct.Mapper;
 
-@Mapper
+@Mapper(uses = Amounts.class)
 public interface EmployeesMapper {
 
     DisplayEmployeeDto toDto(EmployeeEntity employeeEntity);
 
+    DisplayEmployeeDto toDto(EmployeesRepo.EmployeeWithBalance employee);
+
     EmployeeEntity toEntity(AddEmployeeDto addEmployeeDto);
 }
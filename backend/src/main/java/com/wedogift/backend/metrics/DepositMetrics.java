@@ -0,0 +1,57 @@
+package com.wedogift.backend.metrics;
+
+import com.wedogift.backend.dtos.EnumDepositType;
+import com.wedogift.backend.mappers.Amounts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Business metrics of the deposits:
+ * <ul>
+ *     <li>wedoostore.deposits.amount: amount and count of the deposits, tagged by deposit type</li>
+ *     <li>wedoostore.deposits.rejected: deposits rejected because the company balance is too low</li>
+ *     <li>wedoostore.deposits.coalesced: number of single deposits run in each transaction by the DepositCoalescer</li>
+ * </ul>
+ */
+@Component
+public class DepositMetrics {
+
+    private final Map<EnumDepositType, DistributionSummary> amounts = new EnumMap<>(EnumDepositType.class);
+    private final Counter notEnoughBalance;
+    private final DistributionSummary coalescedBatches;
+
+    public DepositMetrics(MeterRegistry meterRegistry) {
+        for (EnumDepositType depositType : EnumDepositType.values()) {
+            amounts.put(depositType, DistributionSummary.builder("wedoostore.deposits.amount")
+                    .description("Amount of the deposits made to employees")
+                    .tag("type", depositType.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        notEnoughBalance = Counter.builder("wedoostore.deposits.rejected")
+                .description("Deposits rejected because the company balance is too low")
+                .tag("reason", "not_enough_balance")
+                .register(meterRegistry);
+        coalescedBatches = DistributionSummary.builder("wedoostore.deposits.coalesced")
+                .description("Single deposits of a company run in one transaction")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void recordDeposit(EnumDepositType depositType, long cents) {
+        amounts.get(depositType).record(Amounts.toAmount(cents));
+    }
+
+    public void recordNotEnoughBalance() {
+        notEnoughBalance.increment();
+    }
+
+    public void recordCoalescedBatch(int deposits) {
+        coalescedBatches.record(deposits);
+    }
+}
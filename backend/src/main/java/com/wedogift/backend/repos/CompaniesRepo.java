@@ -1,13 +1,32 @@
 package com.wedogift.backend.repos;
 
+import com.wedogift.backend.dtos.CompanyPrincipal;
 import com.wedogift.backend.entities.CompanyEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface CompaniesRepo extends JpaRepository<CompanyEntity, UUID> {
+public interface CompaniesRepo extends JpaRepository<CompanyEntity, UUID>, CompaniesRepoCustom {
     Optional<CompanyEntity> findByEmail(String email);
+
+    boolean existsByEmailIn(Collection<String> emails);
+
+    @Query("select new com.wedogift.backend.dtos.CompanyPrincipal(c.id, c.email, c.password) from CompanyEntity c where c.email = :email")
+    Optional<CompanyPrincipal> findPrincipalByEmail(@Param("email") String email);
+
+    /**
+     * Atomically subtracts an amount in cents from the company balance, only if the balance covers it
+     *
+     * @return the number of updated companies, 0 when the balance is not enough
+     */
+    @Modifying
+    @Query("update CompanyEntity c set c.balance = c.balance - :amount where c.id = :id and c.balance >= :amount")
+    int debitBalance(@Param("id") UUID id, @Param("amount") long amount);
 }
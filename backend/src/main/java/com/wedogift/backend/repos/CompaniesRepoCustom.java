@@ -0,0 +1,11 @@
+package com.wedogift.backend.repos;
+
+public interface CompaniesRepoCustom {
+
+    /**
+     * Empties the companies, employees, deposits and balance snapshots with one TRUNCATE. It takes an exclusive lock
+     * on the tables, for the development databases only. The balance_ledger is kept, its entries still refer to the
+     * employees deleted, and count in the balance of an employee created again with the same id.
+     */
+    void truncateAll();
+}
@@ -0,0 +1,19 @@
+package com.wedogift.backend.repos;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class CompaniesRepoCustomImpl implements CompaniesRepoCustom {
+
+    private static final String TRUNCATE_SQL = "truncate table deposits, employee_balance_snapshots, employees, companies";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    CompaniesRepoCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void truncateAll() {
+        jdbcTemplate.execute(TRUNCATE_SQL);
+    }
+}
@@ -0,0 +1,53 @@
+package com.wedogift.backend.repos;
+
+import com.wedogift.backend.dtos.EnumDepositType;
+import com.wedogift.backend.entities.DepositEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DepositsRepo extends JpaRepository<DepositEntity, UUID> {
+
+    /**
+     * Next page of deposits expired before today and not yet removed from the balances,
+     * ordered by (expiresOn, id) and starting strictly after the given cursor
+     */
+    @Query("""
+            select d.id as id, d.employee.id as employeeId, d.depositType as depositType,
+                   d.balance as balance, d.expiresOn as expiresOn
+            from DepositEntity d
+            where d.expired = false
+              and d.expiresOn >= :watermark and d.expiresOn < :today
+              and (d.expiresOn > :afterExpiresOn or (d.expiresOn = :afterExpiresOn and d.id > :afterId))
+            order by d.expiresOn, d.id
+            """)
+    List<ExpiringDeposit> findExpiring(@Param("watermark") LocalDate watermark,
+                                       @Param("today") LocalDate today,
+                                       @Param("afterExpiresOn") LocalDate afterExpiresOn,
+                                       @Param("afterId") UUID afterId,
+                                       Pageable pageable);
+
+    @Modifying
+    @Query("update DepositEntity d set d.expired = true where d.id in :ids")
+    int markExpired(@Param("ids") List<UUID> ids);
+
+    interface ExpiringDeposit {
+        UUID getId();
+
+        UUID getEmployeeId();
+
+        EnumDepositType getDepositType();
+
+        long getBalance();
+
+        LocalDate getExpiresOn();
+    }
+}
@@ -0,0 +1,37 @@
+package com.wedogift.backend.repos;
+
+import com.wedogift.backend.entities.EmployeeBalanceSnapshotEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface EmployeeBalanceSnapshotsRepo extends JpaRepository<EmployeeBalanceSnapshotEntity, UUID> {
+
+    /**
+     * Adds the ledger entries of the transactions in [fromXactId, toXactId) to the snapshots of their employees,
+     * which then include every entry of the transactions before toXactId.
+     * Every entry of the transactions before fromXactId must already be included in the snapshots.
+     *
+     * @return the number of snapshots taken
+     */
+    @Modifying
+    @Query(value = """
+            insert into employee_balance_snapshots (employee_id, xact_id, balance, taken_at)
+            select l.employee_id, :toXactId, sum(l.amount), now()
+            from balance_ledger l
+            join employees e on e.id = l.employee_id
+            where l.xact_id >= :fromXactId and l.xact_id < :toXactId
+            group by l.employee_id
+            on conflict (employee_id) do update
+            set xact_id  = excluded.xact_id,
+                balance  = employee_balance_snapshots.balance + excluded.balance,
+                taken_at = excluded.taken_at
+            where employee_balance_snapshots.xact_id <= :fromXactId
+            """, nativeQuery = true)
+    int takeSnapshots(@Param("fromXactId") long fromXactId, @Param("toXactId") long toXactId);
+}
@@ -3,17 +3,63 @@ package com.wedogift.backend.repos;
 
 import com.wedogift.backend.entities.CompanyEntity;
 import com.wedogift.backend.entities.EmployeeEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface EmployeesRepo extends JpaRepository<EmployeeEntity, UUID> {
+public interface EmployeesRepo extends JpaRepository<EmployeeEntity, UUID>, EmployeesRepoCustom {
 
-    List<EmployeeEntity> findByCompany(CompanyEntity company);
+    /**
+     * Page of the employees of a company ordered by id, starting strictly after the given id,
+     * each with its current balance, its snapshot plus the tail of its ledger, read in the same query
+     */
+    @Query("""
+            select e.id as id, e.name as name, coalesce(s.balance, 0) + coalesce(sum(l.amount), 0) as balance
+            from EmployeeEntity e
+            left join EmployeeBalanceSnapshotEntity s on s.employeeId = e.id
+            left join LedgerEntryEntity l on l.employeeId = e.id and l.xactId >= coalesce(s.xactId, 0)
+            where e.company.id = :companyId and e.id > :afterId
+            group by e.id, e.name, s.balance
+            order by e.id
+            """)
+    List<EmployeeWithBalance> findPageWithBalanceByCompanyId(@Param("companyId") UUID companyId,
+                                                            @Param("afterId") UUID afterId,
+                                                            Pageable pageable);
+
+    /**
+     * All the employees of a company ordered by id, each with its current balance
+     */
+    @Query("""
+            select e.id as id, e.name as name, coalesce(s.balance, 0) + coalesce(sum(l.amount), 0) as balance
+            from EmployeeEntity e
+            left join EmployeeBalanceSnapshotEntity s on s.employeeId = e.id
+            left join LedgerEntryEntity l on l.employeeId = e.id and l.xactId >= coalesce(s.xactId, 0)
+            where e.company.id = :companyId
+            group by e.id, e.name, s.balance
+            order by e.id
+            """)
+    List<EmployeeWithBalance> findAllWithBalanceByCompanyId(@Param("companyId") UUID companyId);
 
     Optional<EmployeeEntity> findByIdAndCompany(UUID id, CompanyEntity companyEntity);
+
+    boolean existsByIdAndCompany(UUID id, CompanyEntity companyEntity);
+
+    List<EmployeeEntity> findByCompanyAndIdIn(CompanyEntity companyEntity, Collection<UUID> ids);
+
+    interface EmployeeWithBalance {
+        UUID getId();
+
+        String getName();
+
+        // in cents
+        long getBalance();
+    }
 }
@@ -0,0 +1,14 @@
+package com.wedogift.backend.repos;
+
+import com.wedogift.backend.entities.EmployeeEntity;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface EmployeesRepoCustom {
+
+    /**
+     * Inserts employees with already generated ids in one JDBC batch, without going through the persistence context
+     */
+    void insertAll(UUID companyId, List<EmployeeEntity> employees);
+}
@@ -0,0 +1,27 @@
+package com.wedogift.backend.repos;
+
+import com.wedogift.backend.entities.EmployeeEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+class EmployeesRepoCustomImpl implements EmployeesRepoCustom {
+
+    private static final String INSERT_SQL = "insert into employees (id, name, company_id) values (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    EmployeesRepoCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(UUID companyId, List<EmployeeEntity> employees) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, employees, employees.size(), (ps, employee) -> {
+            ps.setObject(1, employee.getId());
+            ps.setString(2, employee.getName());
+            ps.setObject(3, companyId);
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.wedogift.backend.repos;
+
+import com.wedogift.backend.entities.JobStateEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobStatesRepo extends JpaRepository<JobStateEntity, String> {
+
+    /**
+     * Reads the state of a job and locks it until the end of the transaction, so that two instances never run the same batch
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select j from JobStateEntity j where j.name = :name")
+    Optional<JobStateEntity> findForUpdate(@Param("name") String name);
+}
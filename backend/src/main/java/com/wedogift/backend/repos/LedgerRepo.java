@@ -0,0 +1,75 @@
+package com.wedogift.backend.repos;
+
+import com.wedogift.backend.entities.LedgerEntryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface LedgerRepo extends JpaRepository<LedgerEntryEntity, Long>, LedgerRepoCustom {
+
+    /**
+     * Current balance in cents of an employee on the given day: its last snapshot plus the ledger entries of the
+     * transactions after it, so the number of entries read is bounded by the snapshot interval. The deposits expired
+     * before that day and not yet swept by the DepositExpiryScheduler are taken out, in the same statement so that a
+     * concurrent sweep is either fully seen or not at all.
+     */
+    @Query(value = """
+            select coalesce(s.balance, 0) + coalesce(tail.amount, 0) - expired.amount as balance,
+                   tail.entries + expired.deposits as rowsScanned
+            from (values (1)) as employee
+            left join employee_balance_snapshots s on s.employee_id = :employeeId
+            cross join lateral (select cast(sum(l.amount) as bigint) as amount, count(*) as entries
+                                from balance_ledger l
+                                where l.employee_id = :employeeId
+                                  and l.xact_id >= coalesce(s.xact_id, 0)) as tail
+            cross join (select coalesce(cast(sum(d.balance) as bigint), 0) as amount, count(*) as deposits
+                        from deposits d
+                        where d.employee_id = :employeeId
+                          and not d.expired
+                          and d.expires_on < :today) as expired
+            """, nativeQuery = true)
+    EmployeeBalance findBalanceByEmployeeId(@Param("employeeId") UUID employeeId, @Param("today") LocalDate today);
+
+    /**
+     * Balance in cents of an employee replayed from its whole ledger, ignoring the snapshots
+     */
+    @Query("select coalesce(sum(l.amount), 0) from LedgerEntryEntity l where l.employeeId = :employeeId")
+    long replayBalanceByEmployeeId(@Param("employeeId") UUID employeeId);
+
+    /**
+     * Oldest transaction still running. Every ledger entry of an older transaction is already committed or rolled back.
+     */
+    @Query(value = "select cast(cast(pg_snapshot_xmin(pg_current_snapshot()) as text) as bigint)", nativeQuery = true)
+    long findOldestRunningTransactionId();
+
+    /**
+     * Appends one expiration entry per deposit, removing its amount from the balance of its employee.
+     * 3 is the code of {@link com.wedogift.backend.entities.EnumLedgerEntryType#EXPIRATION}.
+     */
+    @Modifying
+    @Query(value = """
+            insert into balance_ledger (entry_type, company_id, employee_id, deposit_id, deposit_type, amount)
+            select 3, e.company_id, d.employee_id, d.id, d.deposit_type, -d.balance
+            from deposits d
+            join employees e on e.id = d.employee_id
+            where d.id in :depositIds
+            order by d.expires_on, d.id
+            """, nativeQuery = true)
+    int appendExpirations(@Param("depositIds") List<UUID> depositIds);
+
+    interface EmployeeBalance {
+        long getBalance();
+
+        /**
+         * Ledger entries appended after the snapshot and expired deposits not yet swept, read to compute the balance
+         */
+        long getRowsScanned();
+    }
+}
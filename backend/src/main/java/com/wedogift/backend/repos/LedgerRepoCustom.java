@@ -0,0 +1,31 @@
+package com.wedogift.backend.repos;
+
+import com.wedogift.backend.dtos.EnumDepositType;
+import com.wedogift.backend.entities.EnumLedgerEntryType;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface LedgerRepoCustom {
+
+    /**
+     * Appends entries to the balance ledger in one JDBC batch, in the iteration order of the collection
+     */
+    void appendAll(Collection<LedgerEntry> entries);
+
+    /**
+     * @param amount in cents, negative for debits and expirations
+     */
+    record LedgerEntry(EnumLedgerEntryType entryType, UUID companyId, UUID employeeId, UUID depositId,
+                       EnumDepositType depositType, long amount) {
+
+        public static LedgerEntry companyDebit(UUID companyId, long amount) {
+            return new LedgerEntry(EnumLedgerEntryType.COMPANY_DEBIT, companyId, null, null, null, -amount);
+        }
+
+        public static LedgerEntry employeeCredit(UUID companyId, UUID employeeId, UUID depositId,
+                                                 EnumDepositType depositType, long amount) {
+            return new LedgerEntry(EnumLedgerEntryType.EMPLOYEE_CREDIT, companyId, employeeId, depositId, depositType, amount);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.wedogift.backend.repos;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.Collection;
+
+class LedgerRepoCustomImpl implements LedgerRepoCustom {
+
+    private static final String APPEND_SQL = """
+            insert into balance_ledger (entry_type, company_id, employee_id, deposit_id, deposit_type, amount)
+            values (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    LedgerRepoCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void appendAll(Collection<LedgerEntry> entries) {
+        jdbcTemplate.batchUpdate(APPEND_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setShort(1, entry.entryType().getCode());
+            ps.setObject(2, entry.companyId(), Types.OTHER);
+            ps.setObject(3, entry.employeeId(), Types.OTHER);
+            ps.setObject(4, entry.depositId(), Types.OTHER);
+            ps.setObject(5, entry.depositType() == null ? null : entry.depositType().getCode(), Types.SMALLINT);
+            ps.setLong(6, entry.amount());
+        });
+    }
+}
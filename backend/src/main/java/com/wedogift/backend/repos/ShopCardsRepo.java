@@ -0,0 +1,46 @@
+package com.wedogift.backend.repos;
+
+import com.wedogift.backend.entities.ShopCardEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ShopCardsRepo extends JpaRepository<ShopCardEntity, UUID> {
+
+    /**
+     * Cards in stock of a shop, read through the (shop_id, card_value) unique index
+     */
+    List<ShopCardEntity> findByShopId(Long shopId);
+
+    /**
+     * Adds cards of a value to the stock, creating the value if the shop has none
+     */
+    @Modifying
+    @Query(value = """
+            insert into shop_cards (id, shop_id, card_value, quantity)
+            values (gen_random_uuid(), :shopId, :value, :quantity)
+            on conflict (shop_id, card_value) do update set quantity = shop_cards.quantity + excluded.quantity
+            """, nativeQuery = true)
+    int addQuantity(@Param("shopId") long shopId, @Param("value") int value, @Param("quantity") int quantity);
+
+    /**
+     * Removes cards of a value from the stock, unless there are not enough of them
+     *
+     * @return the number of updated rows, 0 when there are not enough cards
+     */
+    @Modifying
+    @Query("""
+            update ShopCardEntity c set c.quantity = c.quantity - :quantity
+            where c.shop.id = :shopId and c.value = :value and c.quantity >= :quantity
+            """)
+    int removeQuantity(@Param("shopId") long shopId, @Param("value") int value, @Param("quantity") int quantity);
+
+    @Query("select c.quantity from ShopCardEntity c where c.shop.id = :shopId and c.value = :value")
+    int findQuantity(@Param("shopId") long shopId, @Param("value") int value);
+}
@@ -0,0 +1,20 @@
+package com.wedogift.backend.repos;
+
+import com.wedogift.backend.entities.ShopEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ShopsRepo extends JpaRepository<ShopEntity, Long> {
+
+    /**
+     * Whether the shop exists and is owned by the company
+     */
+    @Query("""
+            select count(s) > 0 from ShopEntity s
+            where s.id = :shopId and s.companyId = (select c.id from CompanyEntity c where c.email = :companyEmail)
+            """)
+    boolean existsByIdAndCompanyEmail(@Param("shopId") long shopId, @Param("companyEmail") String companyEmail);
+}
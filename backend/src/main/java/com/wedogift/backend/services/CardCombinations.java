@@ -0,0 +1,258 @@
+package com.wedogift.backend.services;
+
+import java.util.*;
+
+/**
+ * Snapshot of the sums reachable with the gift cards in stock of a shop, each one with its combination of the fewest
+ * cards.
+ * <p>
+ * The table has one layer per card value: layer i holds, for every sum up to {@code maxAmount}, the fewest cards of
+ * the first i + 1 values adding up to it. A layer is computed from the previous one in O(maxAmount) whatever the
+ * quantity, with a sliding window minimum over the sums sharing the same remainder by the card value. The closest
+ * reachable sums are then precomputed for every amount, a query is two array reads plus the walk back over the layers
+ * for its combination.
+ * <p>
+ * A change of the stock ({@link #withQuantity(int, int)}) returns a new snapshot that shares the layers before the
+ * changed value and recomputes the following ones only, the previous snapshot stays unchanged for its readers.
+ * Immutable and thread safe.
+ */
+public final class CardCombinations {
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int NONE = -1;
+
+    private final int maxAmount;
+    // layer of the empty stock, the start of the first layer
+    private final int[] emptyLayer;
+    // card values and quantities in stock, in the order of the layers
+    private final int[] values;
+    private final int[] quantities;
+    // layers[i][s], fewest cards of values[0..i] for the sum s, shared with the other snapshots when unchanged
+    private final int[][] layers;
+    // largest reachable sum <= s and smallest reachable sum >= s, NONE if there is none
+    private final int[] floors;
+    private final int[] ceils;
+
+    private CardCombinations(int maxAmount, int[] emptyLayer, int[] values, int[] quantities, int[][] layers,
+                             int[] floors, int[] ceils) {
+        this.maxAmount = maxAmount;
+        this.emptyLayer = emptyLayer;
+        this.values = values;
+        this.quantities = quantities;
+        this.layers = layers;
+        this.floors = floors;
+        this.ceils = ceils;
+    }
+
+    /**
+     * Builds the combinations of a stock of cards
+     *
+     * @param stock     the quantity in stock of each card value
+     * @param maxAmount the largest sum to compute, larger amounts only get the largest reachable sum as floor
+     * @return the combinations
+     */
+    public static CardCombinations of(Map<Integer, Integer> stock, int maxAmount) {
+        if (maxAmount < 0) {
+            throw new IllegalArgumentException("Invalid max amount " + maxAmount);
+        }
+        Map<Integer, Integer> sortedStock = new TreeMap<>(stock);
+        int[] values = new int[sortedStock.size()];
+        int[] quantities = new int[sortedStock.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> card : sortedStock.entrySet()) {
+            checkCard(card.getKey(), card.getValue());
+            values[i] = card.getKey();
+            quantities[i] = card.getValue();
+            i++;
+        }
+        int[] emptyLayer = new int[maxAmount + 1];
+        Arrays.fill(emptyLayer, UNREACHABLE);
+        emptyLayer[0] = 0;
+        int[][] layers = new int[values.length][];
+        computeLayers(maxAmount, emptyLayer, values, quantities, layers, 0);
+        return withLayers(maxAmount, emptyLayer, values, quantities, layers);
+    }
+
+    /**
+     * Snapshot of the stock after a change of the quantity of a card value, only the layers from this value on are
+     * recomputed, and none when the quantity is above the number of cards of this value any sum could use.
+     *
+     * @param value    the card value
+     * @param quantity the new quantity in stock
+     * @return the combinations of the new stock
+     */
+    public CardCombinations withQuantity(int value, int quantity) {
+        checkCard(value, quantity);
+        int index = indexOf(value);
+        if (index < 0) {
+            if (quantity == 0) {
+                return this;
+            }
+            // a new value gets the last layer, nothing else is recomputed
+            int[] newValues = Arrays.copyOf(values, values.length + 1);
+            int[] newQuantities = Arrays.copyOf(quantities, quantities.length + 1);
+            int[][] newLayers = Arrays.copyOf(layers, layers.length + 1);
+            newValues[values.length] = value;
+            newQuantities[values.length] = quantity;
+            computeLayers(maxAmount, emptyLayer, newValues, newQuantities, newLayers, values.length);
+            return withLayers(maxAmount, emptyLayer, newValues, newQuantities, newLayers);
+        }
+        int[] newQuantities = quantities.clone();
+        newQuantities[index] = quantity;
+        if (usable(value, quantity, maxAmount) == usable(value, quantities[index], maxAmount)) {
+            return new CardCombinations(maxAmount, emptyLayer, values, newQuantities, layers, floors, ceils);
+        }
+        int[][] newLayers = layers.clone();
+        computeLayers(maxAmount, emptyLayer, values, newQuantities, newLayers, index);
+        return withLayers(maxAmount, emptyLayer, values, newQuantities, newLayers);
+    }
+
+    /**
+     * @return the quantity in stock of a card value
+     */
+    public int quantity(int value) {
+        int index = indexOf(value);
+        return index < 0 ? 0 : quantities[index];
+    }
+
+    /**
+     * @return the largest reachable sum lower than or equal to the amount
+     */
+    public OptionalInt floor(int amount) {
+        if (amount <= 0) {
+            return OptionalInt.empty();
+        }
+        int floor = floors[Math.min(amount, maxAmount)];
+        return floor == NONE ? OptionalInt.empty() : OptionalInt.of(floor);
+    }
+
+    /**
+     * @return the smallest reachable sum greater than or equal to the amount
+     */
+    public OptionalInt ceil(int amount) {
+        if (amount > maxAmount) {
+            return OptionalInt.empty();
+        }
+        int ceil = ceils[Math.max(amount, 0)];
+        return ceil == NONE ? OptionalInt.empty() : OptionalInt.of(ceil);
+    }
+
+    /**
+     * @return the largest reachable sum, amounts above it have no ceil
+     */
+    public int maxSum() {
+        return Math.max(floors[maxAmount], 0);
+    }
+
+    /**
+     * Combination of the fewest cards for a reachable sum
+     *
+     * @param sum a sum returned by {@link #floor(int)} or {@link #ceil(int)}
+     * @return the card values, highest first
+     */
+    public List<Integer> cards(int sum) {
+        if (sum <= 0 || sum > maxAmount || floors[sum] != sum) {
+            throw new IllegalArgumentException("Unreachable sum " + sum);
+        }
+        List<Integer> cards = new ArrayList<>();
+        int remaining = sum;
+        for (int i = layers.length - 1; i >= 0 && remaining > 0; i--) {
+            int[] previous = i == 0 ? emptyLayer : layers[i - 1];
+            if (layers[i] == previous) {
+                continue;
+            }
+            // the fewest cards of this value that complete a combination of the previous values
+            int target = layers[i][remaining];
+            int count = 0;
+            while (previous[remaining - count * values[i]] == UNREACHABLE
+                    || previous[remaining - count * values[i]] + count != target) {
+                count++;
+            }
+            for (int card = 0; card < count; card++) {
+                cards.add(values[i]);
+            }
+            remaining -= count * values[i];
+        }
+        cards.sort(Comparator.reverseOrder());
+        return cards;
+    }
+
+    private int indexOf(int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void checkCard(int value, int quantity) {
+        if (value <= 0 || quantity < 0) {
+            throw new IllegalArgumentException("Invalid card " + value + " x " + quantity);
+        }
+    }
+
+    // cards of a value that a combination of at most maxAmount can use
+    private static int usable(int value, int quantity, int maxAmount) {
+        return Math.min(quantity, maxAmount / value);
+    }
+
+    private static void computeLayers(int maxAmount, int[] emptyLayer, int[] values, int[] quantities, int[][] layers,
+                                      int from) {
+        int[] window = new int[maxAmount + 1];
+        for (int i = from; i < layers.length; i++) {
+            int[] previous = i == 0 ? emptyLayer : layers[i - 1];
+            layers[i] = computeLayer(previous, values[i], usable(values[i], quantities[i], maxAmount), window);
+        }
+    }
+
+    /**
+     * layer[s] = min over c in [0, usable] of previous[s - c * value] + c. Along the sums s = r + j * value, it is
+     * j + the minimum of previous[r + t * value] - t over the window t in [j - usable, j], kept in a deque of
+     * increasing minimums.
+     */
+    private static int[] computeLayer(int[] previous, int value, int usable, int[] window) {
+        if (usable == 0) {
+            return previous;
+        }
+        int[] layer = new int[previous.length];
+        for (int remainder = 0; remainder < value && remainder < previous.length; remainder++) {
+            int head = 0;
+            int tail = 0;
+            for (int j = 0, sum = remainder; sum < previous.length; j++, sum += value) {
+                if (previous[sum] != UNREACHABLE) {
+                    int start = previous[sum] - j;
+                    while (tail > head && previous[remainder + window[tail - 1] * value] - window[tail - 1] >= start) {
+                        tail--;
+                    }
+                    window[tail++] = j;
+                }
+                while (tail > head && window[head] < j - usable) {
+                    head++;
+                }
+                layer[sum] = tail > head ? previous[remainder + window[head] * value] - window[head] + j : UNREACHABLE;
+            }
+        }
+        return layer;
+    }
+
+    private static CardCombinations withLayers(int maxAmount, int[] emptyLayer, int[] values, int[] quantities,
+                                               int[][] layers) {
+        int[] cardCounts = layers.length == 0 ? emptyLayer : layers[layers.length - 1];
+        int[] floors = new int[maxAmount + 1];
+        int[] ceils = new int[maxAmount + 1];
+        floors[0] = NONE;
+        for (int sum = 1; sum <= maxAmount; sum++) {
+            floors[sum] = cardCounts[sum] != UNREACHABLE ? sum : floors[sum - 1];
+        }
+        int next = NONE;
+        for (int sum = maxAmount; sum >= 1; sum--) {
+            if (cardCounts[sum] != UNREACHABLE) {
+                next = sum;
+            }
+            ceils[sum] = next;
+        }
+        ceils[0] = maxAmount >= 1 ? ceils[1] : NONE;
+        return new CardCombinations(maxAmount, emptyLayer, values, quantities, layers, floors, ceils);
+    }
+}
@@ -0,0 +1,51 @@
+package com.wedogift.backend.services;
+
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Cards in stock of a shop and their combinations. Readers take the current {@link CardCombinations} snapshot without
+ * locking, the changes of the stock are applied one at a time and publish a new snapshot.
+ */
+public final class CardInventory {
+
+    private final long shopId;
+    private volatile CardCombinations snapshot;
+
+    public CardInventory(long shopId, Map<Integer, Integer> stock, int maxAmount) {
+        this.shopId = shopId;
+        this.snapshot = CardCombinations.of(stock, maxAmount);
+    }
+
+    public long getShopId() {
+        return shopId;
+    }
+
+    /**
+     * @return the combinations of the stock at the time of the call, unchanged by the later changes
+     */
+    public CardCombinations snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Sets the quantity in stock of a card value
+     *
+     * @param value    the card value
+     * @param quantity the new quantity
+     */
+    public synchronized void setQuantity(int value, int quantity) {
+        snapshot = snapshot.withQuantity(value, quantity);
+    }
+
+    /**
+     * Sets the quantity in stock of a card value to the one read by the given supplier, called while holding the lock
+     * of the inventory so that the changes are applied in the order of the reads
+     *
+     * @param value    the card value
+     * @param quantity reads the new quantity
+     */
+    public synchronized void refreshQuantity(int value, IntSupplier quantity) {
+        setQuantity(value, quantity.getAsInt());
+    }
+}
@@ -25,8 +25,24 @@ public interface CompaniesService extends UserDetailsService {
      */
     List<DisplayCompanyDto> getAllCompanies();
 
+    /**
+     * Adds new companies in one batch
+     *
+     * @param addCompanyDtos the companies to add
+     * @return the ids of the created companies, in the same order
+     */
+    List<UUID> addCompanies(List<AddCompanyDto> addCompanyDtos);
+
+    /**
+     * Deletes all the companies, their employees and deposits with one delete statement per table
+     */
     void deleteAllCompanies();
 
+    /**
+     * Same as {@link #deleteAllCompanies()} with a TRUNCATE, for the development databases
+     */
+    void truncateAllCompanies();
+
     /**
      * Get company the id
      *
@@ -36,7 +52,7 @@ public interface CompaniesService extends UserDetailsService {
     DisplayCompanyDto getCompany(String companyEmail);
 
     /**
-     * Get user details
+     * Get user details, cached by username and evicted when companies are added or deleted
      *
      * @param username the username of logged in user
      * @return USerDetails
@@ -52,12 +68,14 @@ public interface CompaniesService extends UserDetailsService {
     void addEmployeeToCompany(String companyEmail, AddEmployeeDto employeeDto);
 
     /**
-     * Get all employees of a company
+     * Get a page of the employees of a company
      *
      * @param companyEmail the email to the company
-     * @return list of {@link  DisplayEmployeeDto}
+     * @param size         the maximum number of employees to return
+     * @param pageToken    the nextPageToken of the previous page, null for the first page
+     * @return page of {@link  DisplayEmployeeDto}
      */
-    List<DisplayEmployeeDto> getCompanyEmplyees(String companyEmail);
+    EmployeesPageDto getCompanyEmplyees(String companyEmail, int size, String pageToken);
 
     /**
      * Get an  employee by id
@@ -78,6 +96,15 @@ public interface CompaniesService extends UserDetailsService {
      */
     void depositBalanceToEmployee(String companyEmail, UUID employeeId, DepositBalanceDto depositBalanceDto);
 
+    /**
+     * Make many deposits at once, the company balance is debited once for the total of the deposits
+     *
+     * @param companyEmail    the email to the company  which makes deposits
+     * @param batchDepositDto the deposits to make {@link BatchDepositDto}
+     * @return the result of each deposit, in the order of the request
+     */
+    List<BatchDepositResultDto> depositBalanceToEmployees(String companyEmail, BatchDepositDto batchDepositDto);
+
     /**
      * Returns the employee balance
      *
@@ -1,30 +1,49 @@
 package com.wedogift.backend.services;
 
+import com.wedogift.backend.config.CacheConfig;
 import com.wedogift.backend.dtos.*;
 import com.wedogift.backend.entities.CompanyEntity;
 import com.wedogift.backend.entities.DepositEntity;
 import com.wedogift.backend.entities.EmployeeEntity;
 import com.wedogift.backend.exceptions.DuplicateResourceException;
+import com.wedogift.backend.exceptions.InvalidParameterException;
 import com.wedogift.backend.exceptions.NotEnoughBalanceException;
 import com.wedogift.backend.exceptions.ResourceNotFoundException;
+import com.wedogift.backend.jfr.BalanceEvent;
+import com.wedogift.backend.jfr.DepositEvent;
+import com.wedogift.backend.mappers.Amounts;
 import com.wedogift.backend.mappers.CompaniesMapper;
 import com.wedogift.backend.mappers.EmployeesMapper;
+import com.wedogift.backend.metrics.DepositMetrics;
 import com.wedogift.backend.repos.CompaniesRepo;
+import com.wedogift.backend.repos.DepositsRepo;
 import com.wedogift.backend.repos.EmployeesRepo;
+import com.wedogift.backend.repos.LedgerRepo;
+import com.wedogift.backend.repos.LedgerRepoCustom.LedgerEntry;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "wedoostore.companies.service", histogram = true)
 public class CompaniesServiceImpl implements CompaniesService {
 
     private final CompaniesRepo companiesRepo;
     private final EmployeesRepo employeesRepo;
+    private final LedgerRepo ledgerRepo;
+    private final DepositsRepo depositsRepo;
 
     private final CompaniesMapper companiesMapper;
 
@@ -32,18 +51,26 @@ public class CompaniesServiceImpl implements CompaniesService {
 
     private final PasswordEncoder passwordEncoder;
 
+    private final DepositMetrics depositMetrics;
+
     public static final String NO_COMPANY_WITH_THE_GIVEN_ID_FOUND = "No company found with the given id ";
     public static final String NO_USER_WITH_THE_GIVEN_ID_FOUND = "No employee found with the given id in the company";
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
 
-    public CompaniesServiceImpl(CompaniesRepo companiesRepo, EmployeesRepo employeesRepo, CompaniesMapper companiesMapper, EmployeesMapper employeesMapper, PasswordEncoder passwordEncoder) {
+    public CompaniesServiceImpl(CompaniesRepo companiesRepo, EmployeesRepo employeesRepo, LedgerRepo ledgerRepo, DepositsRepo depositsRepo, CompaniesMapper companiesMapper, EmployeesMapper employeesMapper, PasswordEncoder passwordEncoder, DepositMetrics depositMetrics) {
         this.companiesRepo = companiesRepo;
         this.employeesRepo = employeesRepo;
+        this.ledgerRepo = ledgerRepo;
+        this.depositsRepo = depositsRepo;
         this.companiesMapper = companiesMapper;
         this.employeesMapper = employeesMapper;
         this.passwordEncoder = passwordEncoder;
+        this.depositMetrics = depositMetrics;
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS_CACHE, key = "#addCompanyDto.email()")
     public UUID addCompany(AddCompanyDto addCompanyDto) {
         //validate employee input
         companiesRepo.findByEmail(addCompanyDto.email())
@@ -61,19 +88,50 @@ public class CompaniesServiceImpl implements CompaniesService {
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS_CACHE, allEntries = true)
+    public List<UUID> addCompanies(List<AddCompanyDto> addCompanyDtos) {
+        if (companiesRepo.existsByEmailIn(addCompanyDtos.stream().map(AddCompanyDto::email).toList())) {
+            throw new DuplicateResourceException("Email already taken");
+        }
+        List<CompanyEntity> companies = addCompanyDtos.stream().map(companiesMapper::toEntity).toList();
+        companies.forEach(company -> company.setPassword(passwordEncoder.encode(company.getPassword())));
+        //the ids are generated by hibernate, the inserts go in one JDBC batch
+        return companiesRepo.saveAll(companies).stream().map(CompanyEntity::getId).toList();
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS_CACHE, allEntries = true)
     public void deleteAllCompanies() {
-        companiesRepo.deleteAll();
+        //one delete statement per table, nothing is loaded. The balance snapshots go with the employees (on delete cascade)
+        depositsRepo.deleteAllInBatch();
+        employeesRepo.deleteAllInBatch();
+        companiesRepo.deleteAllInBatch();
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS_CACHE, allEntries = true)
+    public void truncateAllCompanies() {
+        companiesRepo.truncateAll();
     }
 
     @Override
     public DisplayCompanyDto getCompany(String companyEmail) {
-        return this.companiesRepo.findByEmail(companyEmail).map(companiesMapper::toDto).orElseThrow(() -> new ResourceNotFoundException(NO_COMPANY_WITH_THE_GIVEN_ID_FOUND));
+        CompanyEntity company = this.companiesRepo.findByEmail(companyEmail).orElseThrow(() -> new ResourceNotFoundException(NO_COMPANY_WITH_THE_GIVEN_ID_FOUND));
+        //employees and their balances come from one grouped query, whatever the number of employees
+        List<DisplayEmployeeDto> users = this.employeesRepo.findAllWithBalanceByCompanyId(company.getId()).stream()
+                .map(employeesMapper::toDto)
+                .toList();
+        return companiesMapper.toDto(company, users);
     }
-    
+
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRINCIPALS_CACHE)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return companiesRepo.findByEmail(username).orElseThrow(() -> new UsernameNotFoundException("username " + username + "not found"));
+        return companiesRepo.findPrincipalByEmail(username).orElseThrow(() -> new UsernameNotFoundException("username " + username + "not found"));
     }
 
     @Override
@@ -86,9 +144,31 @@ public class CompaniesServiceImpl implements CompaniesService {
     }
 
     @Override
-    public List<DisplayEmployeeDto> getCompanyEmplyees(String companyEmail) {
+    public EmployeesPageDto getCompanyEmplyees(String companyEmail, int size, String pageToken) {
         CompanyEntity company = this.companiesRepo.findByEmail(companyEmail).orElseThrow(() -> new ResourceNotFoundException(NO_COMPANY_WITH_THE_GIVEN_ID_FOUND));
-        return this.employeesRepo.findByCompany(company).stream().map(employeesMapper::toDto).toList();
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        UUID afterId = pageToken == null ? FIRST_ID : decodePageToken(pageToken);
+
+        //one more employee is read to know whether there is a next page
+        List<EmployeesRepo.EmployeeWithBalance> employees = this.employeesRepo.findPageWithBalanceByCompanyId(company.getId(), afterId, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = employees.size() > pageSize;
+        List<EmployeesRepo.EmployeeWithBalance> page = hasNext ? employees.subList(0, pageSize) : employees;
+        return EmployeesPageDto.builder()
+                .employees(page.stream().map(employeesMapper::toDto).toList())
+                .nextPageToken(hasNext ? encodePageToken(page.get(pageSize - 1).getId()) : null)
+                .build();
+    }
+
+    private static String encodePageToken(UUID lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static UUID decodePageToken(String pageToken) {
+        try {
+            return UUID.fromString(new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Invalid page token");
+        }
     }
 
     @Override
@@ -96,62 +176,172 @@ public class CompaniesServiceImpl implements CompaniesService {
         CompanyEntity company = this.companiesRepo.findByEmail(companyEmail).orElseThrow(() -> new ResourceNotFoundException(NO_COMPANY_WITH_THE_GIVEN_ID_FOUND));
 
         EmployeeEntity employeeEntity = this.employeesRepo.findById(employeeId).orElseThrow(() -> new ResourceNotFoundException(NO_USER_WITH_THE_GIVEN_ID_FOUND));
-        if (employeeEntity.getCompany().getId() != company.getId()) {
+        if (!company.getId().equals(employeeEntity.getCompany().getId())) {
             throw new ResourceNotFoundException("The employee with Id doesn't exists in the company");
         }
         return employeesMapper.toDto(employeeEntity);
     }
 
     @Override
+    @Transactional
     public void depositBalanceToEmployee(String companyEmail, UUID employeeId, DepositBalanceDto depositBalanceDto) {
+        DepositEvent event = new DepositEvent();
+        event.begin();
+        event.depositType = depositBalanceDto.enumDepositType().name();
+        event.deposits = 1;
+        try {
+            depositBalanceToEmployee(companyEmail, employeeId, depositBalanceDto, event);
+            event.succeeded = true;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private void depositBalanceToEmployee(String companyEmail, UUID employeeId, DepositBalanceDto depositBalanceDto, DepositEvent event) {
         CompanyEntity company = this.companiesRepo.findByEmail(companyEmail).orElseThrow(() -> new ResourceNotFoundException(NO_COMPANY_WITH_THE_GIVEN_ID_FOUND));
+        event.companyId = String.valueOf(company.getId());
 
-        EmployeeEntity employee = this.employeesRepo.findByIdAndCompany(employeeId, company).orElseThrow(() -> new ResourceNotFoundException(NO_USER_WITH_THE_GIVEN_ID_FOUND));
+        if (!this.employeesRepo.existsByIdAndCompany(employeeId, company)) {
+            throw new ResourceNotFoundException(NO_USER_WITH_THE_GIVEN_ID_FOUND);
+        }
 
-        if (company.getBalance() < depositBalanceDto.balance()) {
+        long amount = Amounts.toCents(depositBalanceDto.balance());
+        //Update company, the balance check and the debit are a single statement so concurrent deposits can't overdraw it
+        if (companiesRepo.debitBalance(company.getId(), amount) == 0) {
+            depositMetrics.recordNotEnoughBalance();
             throw new NotEnoughBalanceException("Not enough balance for company with ID: " + company.getId());
         }
-        //Add deposit to employee's deposits
-        employee.addDeposit(
+        event.rowsTouched++;
+        EnumDepositType depositType = depositBalanceDto.enumDepositType();
+        LocalDate expiresOn = depositType.expirationDate(depositBalanceDto.depositDate());
+        //a deposit already expired is kept in the history only
+        boolean expired = expiresOn.isBefore(LocalDate.now());
+        //Insert the deposit by employee reference, neither the employee nor its deposits are loaded
+        DepositEntity deposit = depositsRepo.save(
                 DepositEntity.builder()
-                        .balance(depositBalanceDto.balance())
+                        .balance(amount)
                         .depositDate(depositBalanceDto.depositDate())
-                        .depositType(depositBalanceDto.enumDepositType().name())
+                        .depositType(depositType)
+                        .expiresOn(expiresOn)
+                        .expired(expired)
+                        .employee(employeesRepo.getReferenceById(employeeId))
                         .build());
-        employeesRepo.save(employee);
+        event.rowsTouched++;
 
-        //Update company
-        company.setBalance(company.getBalance() - depositBalanceDto.balance());
-        companiesRepo.save(company);
+        //Record the movements, the employee's balance only changes through the ledger
+        List<LedgerEntry> entries = new ArrayList<>(2);
+        entries.add(LedgerEntry.companyDebit(company.getId(), amount));
+        if (!expired) {
+            entries.add(LedgerEntry.employeeCredit(company.getId(), employeeId, deposit.getId(), depositType, amount));
+        }
+        ledgerRepo.appendAll(entries);
+        event.rowsTouched += entries.size();
+        depositMetrics.recordDeposit(depositType, amount);
+    }
 
+    @Override
+    @Transactional
+    public List<BatchDepositResultDto> depositBalanceToEmployees(String companyEmail, BatchDepositDto batchDepositDto) {
+        DepositEvent event = new DepositEvent();
+        event.begin();
+        try {
+            List<BatchDepositResultDto> results = depositBalanceToEmployees(companyEmail, batchDepositDto, event);
+            event.succeeded = true;
+            return results;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private List<BatchDepositResultDto> depositBalanceToEmployees(String companyEmail, BatchDepositDto batchDepositDto, DepositEvent event) {
+        CompanyEntity company = this.companiesRepo.findByEmail(companyEmail).orElseThrow(() -> new ResourceNotFoundException(NO_COMPANY_WITH_THE_GIVEN_ID_FOUND));
+        event.companyId = String.valueOf(company.getId());
+
+        List<BatchDepositItemDto> items = batchDepositDto.deposits();
+        Set<UUID> employeeIds = items.stream().map(BatchDepositItemDto::employeeId).collect(Collectors.toSet());
+        Map<UUID, EmployeeEntity> employees = this.employeesRepo.findByCompanyAndIdIn(company, employeeIds).stream()
+                .collect(Collectors.toMap(EmployeeEntity::getId, Function.identity()));
+
+        //Update company once for the whole batch
+        long total = items.stream().filter(item -> employees.containsKey(item.employeeId()))
+                .mapToLong(item -> Amounts.toCents(item.balance())).reduce(0L, Math::addExact);
+        if (total > 0 && companiesRepo.debitBalance(company.getId(), total) == 0) {
+            depositMetrics.recordNotEnoughBalance();
+            throw new NotEnoughBalanceException("Not enough balance for company with ID: " + company.getId());
+        }
+        if (total > 0) {
+            event.rowsTouched++;
+        }
+
+        LocalDate today = LocalDate.now();
+        List<DepositEntity> deposits = new ArrayList<>(items.size());
+        List<BatchDepositResultDto> results = new ArrayList<>(items.size());
+        for (BatchDepositItemDto item : items) {
+            EmployeeEntity employee = employees.get(item.employeeId());
+            if (employee == null) {
+                results.add(BatchDepositResultDto.builder().employeeId(item.employeeId()).balance(item.balance())
+                        .status(EnumDepositStatus.EMPLOYEE_NOT_FOUND).message(NO_USER_WITH_THE_GIVEN_ID_FOUND).build());
+                continue;
+            }
+            EnumDepositType depositType = item.enumDepositType();
+            long amount = Amounts.toCents(item.balance());
+            LocalDate expiresOn = depositType.expirationDate(item.depositDate());
+            boolean expired = expiresOn.isBefore(today);
+            deposits.add(DepositEntity.builder()
+                    .balance(amount)
+                    .depositDate(item.depositDate())
+                    .depositType(depositType)
+                    .expiresOn(expiresOn)
+                    .expired(expired)
+                    .employee(employee)
+                    .build());
+            results.add(BatchDepositResultDto.builder().employeeId(item.employeeId()).balance(item.balance())
+                    .status(EnumDepositStatus.DEPOSITED).build());
+            depositMetrics.recordDeposit(depositType, amount);
+        }
+        //inserted in JDBC batches, see hibernate.jdbc.batch_size
+        depositsRepo.saveAll(deposits);
+        event.deposits = deposits.size();
+        event.rowsTouched += deposits.size();
+
+        //one company debit for the batch and one credit per counted deposit, appended in a single JDBC batch
+        List<LedgerEntry> entries = new ArrayList<>(deposits.size() + 1);
+        if (total > 0) {
+            entries.add(LedgerEntry.companyDebit(company.getId(), total));
+        }
+        for (DepositEntity deposit : deposits) {
+            if (!deposit.isExpired()) {
+                entries.add(LedgerEntry.employeeCredit(company.getId(), deposit.getEmployee().getId(), deposit.getId(),
+                        deposit.getDepositType(), deposit.getBalance()));
+            }
+        }
+        ledgerRepo.appendAll(entries);
+        event.rowsTouched += entries.size();
+        return results;
     }
 
     @Override
     public GetBalanceDto getEmployeeBalance(String companyEmail, UUID employeeId) {
+        BalanceEvent event = new BalanceEvent();
+        event.begin();
+        event.employeeId = String.valueOf(employeeId);
+        try {
+            GetBalanceDto balance = getEmployeeBalance(companyEmail, employeeId, event);
+            event.succeeded = true;
+            return balance;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private GetBalanceDto getEmployeeBalance(String companyEmail, UUID employeeId, BalanceEvent event) {
         CompanyEntity company = this.companiesRepo.findByEmail(companyEmail).orElseThrow(() -> new ResourceNotFoundException(NO_COMPANY_WITH_THE_GIVEN_ID_FOUND));
+        event.companyId = String.valueOf(company.getId());
 
         EmployeeEntity employee = this.employeesRepo.findByIdAndCompany(employeeId, company).orElseThrow(() -> new ResourceNotFoundException(NO_USER_WITH_THE_GIVEN_ID_FOUND));
-        Double employeeBalance = 0D;
-
-        for (DepositEntity depositEntity : employee.getDeposits()) {
-            String depositType = depositEntity.getDepositType();
-            LocalDate depositDate = depositEntity.getDepositDate();
-            LocalDate today = LocalDate.now();
-            if (EnumDepositType.GIFTS.name().equals(depositType)) {
-                //Gift deposits has 365 days lifespan,
-                LocalDate giftExpireDate = depositDate.plusDays(365);
-                if (today.isEqual(giftExpireDate) || today.isBefore(giftExpireDate)) {
-                    employeeBalance += depositEntity.getBalance();
-                }
-
-            } else if (EnumDepositType.MEALS.name().equals(depositType)) {
-                //meal deposits expires at the end of February of the year following the distribution date.
-                LocalDate mealExpireDate = depositDate.plusYears(1).withMonth(2);
-                if (today.isEqual(mealExpireDate) || today.isBefore(mealExpireDate)) {
-                    employeeBalance += depositEntity.getBalance();
-                }
-            }
-        }
-        return GetBalanceDto.builder().balance(employeeBalance).build();
+        //Expired deposits are removed by the DepositExpiryScheduler through the ledger, the ones it has not swept yet are left out here
+        LedgerRepo.EmployeeBalance employeeBalance = ledgerRepo.findBalanceByEmployeeId(employee.getId(), LocalDate.now());
+        event.depositsScanned = employeeBalance.getRowsScanned();
+        return GetBalanceDto.builder().balance(Amounts.toAmount(employeeBalance.getBalance())).build();
     }
 }
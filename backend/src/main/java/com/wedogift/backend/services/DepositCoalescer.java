@@ -0,0 +1,222 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.dtos.BatchDepositDto;
+import com.wedogift.backend.dtos.BatchDepositItemDto;
+import com.wedogift.backend.dtos.BatchDepositResultDto;
+import com.wedogift.backend.dtos.DepositBalanceDto;
+import com.wedogift.backend.dtos.EnumDepositStatus;
+import com.wedogift.backend.exceptions.NotEnoughBalanceException;
+import com.wedogift.backend.exceptions.ResourceNotFoundException;
+import com.wedogift.backend.exceptions.ServiceUnavailableException;
+import com.wedogift.backend.metrics.DepositMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entry point of the single deposits.
+ * <p>
+ * By default a deposit runs in its own transaction and concurrent deposits of a company wait on the lock of its row.
+ * With {@code app.deposits.coalescing.enabled}, the deposits of a company are queued and drained by a single writer
+ * at a time: the deposits queued meanwhile, up to {@code app.deposits.coalescing.max-batch}, run as one batch deposit
+ * with one transaction and one company debit. {@code app.deposits.coalescing.writers} threads drain the queues, so
+ * deposits of different companies still run in parallel. When a batch doesn't fit in the company balance, its deposits
+ * are run one by one so that each gets the outcome it would have had alone. Callers block until their deposit is done: a
+ * deposit still queued after {@code app.deposits.coalescing.timeout} is dropped, one already taken by a writer is waited
+ * for. The queue of a company is removed once drained.
+ */
+@Component
+public class DepositCoalescer {
+
+    private final CompaniesService companiesService;
+    private final DepositMetrics depositMetrics;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final Duration timeout;
+    private final ExecutorService writers;
+    private final ConcurrentMap<String, CompanyQueue> queues = new ConcurrentHashMap<>();
+
+    public DepositCoalescer(CompaniesService companiesService,
+                            DepositMetrics depositMetrics,
+                            @Value("${app.deposits.coalescing.enabled}") boolean enabled,
+                            @Value("${app.deposits.coalescing.max-batch}") int maxBatch,
+                            @Value("${app.deposits.coalescing.writers}") int writers,
+                            @Value("${app.deposits.coalescing.timeout}") Duration timeout) {
+        this.companiesService = companiesService;
+        this.depositMetrics = depositMetrics;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.timeout = timeout;
+        this.writers = enabled ? Executors.newFixedThreadPool(writers, new WriterThreadFactory()) : null;
+    }
+
+    public void deposit(String companyEmail, UUID employeeId, DepositBalanceDto depositBalanceDto) {
+        if (!enabled) {
+            companiesService.depositBalanceToEmployee(companyEmail, employeeId, depositBalanceDto);
+            return;
+        }
+        PendingDeposit pending = new PendingDeposit(employeeId, depositBalanceDto, new CompletableFuture<>());
+        CompanyQueue queue = queues.compute(companyEmail, (email, current) -> {
+            CompanyQueue companyQueue = current == null ? new CompanyQueue(email) : current;
+            companyQueue.deposits.add(pending);
+            return companyQueue;
+        });
+        schedule(queue);
+        try {
+            await(queue, pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the deposit");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void await(CompanyQueue queue, PendingDeposit pending) throws InterruptedException, ExecutionException {
+        try {
+            pending.done().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            //a deposit still queued is dropped, a deposit already taken by the writer is done or rolled back with its
+            //transaction, the caller gets that outcome
+            if (queue.deposits.remove(pending)) {
+                throw new ServiceUnavailableException("The deposit was not done in time");
+            }
+            pending.done().get();
+        }
+    }
+
+    int companyQueues() {
+        return queues.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (writers != null) {
+            writers.shutdown();
+        }
+    }
+
+    private void schedule(CompanyQueue queue) {
+        //at most one drain of a company is scheduled or running at any time
+        if (queue.draining.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> drain(queue));
+            } catch (RejectedExecutionException e) {
+                //shutting down, nothing will drain the queue anymore
+                queue.draining.set(false);
+                ServiceUnavailableException failure = new ServiceUnavailableException("Deposits are not accepted anymore");
+                PendingDeposit pending;
+                while ((pending = queue.deposits.poll()) != null) {
+                    pending.done().completeExceptionally(failure);
+                }
+                removeIfDrained(queue);
+            }
+        }
+    }
+
+    private void drain(CompanyQueue queue) {
+        List<PendingDeposit> batch = new ArrayList<>();
+        try {
+            PendingDeposit pending;
+            while (batch.size() < maxBatch && (pending = queue.deposits.poll()) != null) {
+                batch.add(pending);
+            }
+            if (!batch.isEmpty()) {
+                depositAll(queue.companyEmail, batch);
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.done().completeExceptionally(e));
+        } catch (Error e) {
+            batch.forEach(pending -> pending.done().completeExceptionally(e));
+            throw e;
+        } finally {
+            queue.draining.set(false);
+            //deposits queued after the last poll, other companies get a writer in between
+            if (!queue.deposits.isEmpty()) {
+                schedule(queue);
+            } else {
+                removeIfDrained(queue);
+            }
+        }
+    }
+
+    private void removeIfDrained(CompanyQueue queue) {
+        //deposits are only queued inside queues.compute, an empty queue can't receive one while it is removed
+        queues.computeIfPresent(queue.companyEmail, (email, current) ->
+                current == queue && current.deposits.isEmpty() ? null : current);
+    }
+
+    private void depositAll(String companyEmail, List<PendingDeposit> batch) {
+        depositMetrics.recordCoalescedBatch(batch.size());
+        if (batch.size() == 1) {
+            depositOne(companyEmail, batch.get(0));
+            return;
+        }
+        List<BatchDepositResultDto> results;
+        try {
+            results = companiesService.depositBalanceToEmployees(companyEmail, BatchDepositDto.builder()
+                    .deposits(batch.stream().map(pending -> BatchDepositItemDto.builder()
+                            .employeeId(pending.employeeId())
+                            .depositDate(pending.deposit().depositDate())
+                            .balance(pending.deposit().balance())
+                            .enumDepositType(pending.deposit().enumDepositType())
+                            .build()).toList())
+                    .build());
+        } catch (NotEnoughBalanceException e) {
+            batch.forEach(pending -> depositOne(companyEmail, pending));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (results.get(i).status() == EnumDepositStatus.DEPOSITED) {
+                batch.get(i).done().complete(null);
+            } else {
+                batch.get(i).done().completeExceptionally(new ResourceNotFoundException(results.get(i).message()));
+            }
+        }
+    }
+
+    private void depositOne(String companyEmail, PendingDeposit pending) {
+        try {
+            companiesService.depositBalanceToEmployee(companyEmail, pending.employeeId(), pending.deposit());
+            pending.done().complete(null);
+        } catch (RuntimeException e) {
+            pending.done().completeExceptionally(e);
+        }
+    }
+
+    private static final class CompanyQueue {
+        private final String companyEmail;
+        private final Queue<PendingDeposit> deposits = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private CompanyQueue(String companyEmail) {
+            this.companyEmail = companyEmail;
+        }
+    }
+
+    private record PendingDeposit(UUID employeeId, DepositBalanceDto deposit, CompletableFuture<Void> done) {
+    }
+
+    private static final class WriterThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "deposit-writer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
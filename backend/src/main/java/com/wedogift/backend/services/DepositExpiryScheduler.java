@@ -0,0 +1,94 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.entities.JobStateEntity;
+import com.wedogift.backend.repos.DepositsRepo;
+import com.wedogift.backend.repos.JobStatesRepo;
+import com.wedogift.backend.repos.LedgerRepo;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Removes the expired deposits from the employees balances by appending an expiration entry per deposit to the ledger.
+ * Only the deposits expired since the last run are read, using the (expires_on, id) index in batches of
+ * {@code app.deposits.expiry-batch-size}, each batch in its own transaction. The watermark stays one day behind so
+ * that a deposit expired yesterday but committed after the previous run is still swept, the {@code expired} flag
+ * keeping the re-read of that day idempotent.
+ */
+@Slf4j
+@Component
+public class DepositExpiryScheduler {
+
+    static final String JOB_NAME = "deposit-expiry";
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final DepositsRepo depositsRepo;
+    private final LedgerRepo ledgerRepo;
+    private final JobStatesRepo jobStatesRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public DepositExpiryScheduler(DepositsRepo depositsRepo,
+                                  LedgerRepo ledgerRepo,
+                                  JobStatesRepo jobStatesRepo,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.deposits.expiry-batch-size}") int batchSize) {
+        this.depositsRepo = depositsRepo;
+        this.ledgerRepo = ledgerRepo;
+        this.jobStatesRepo = jobStatesRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${app.deposits.expiry-cron}")
+    @Timed("wedoostore.deposits.expiry")
+    public void expireDeposits() {
+        //a deposit is still counted on its expiration date, it leaves the balance the day after
+        LocalDate today = LocalDate.now();
+        int expiredDeposits = 0;
+        Batch batch = null;
+        do {
+            Cursor cursor = batch == null ? null : batch.next();
+            batch = transactionTemplate.execute(status -> expireNextBatch(today, cursor));
+            expiredDeposits += batch.size();
+        } while (batch.next() != null);
+        log.info("{} {} deposits expired before {}", "[APILOG]", expiredDeposits, today);
+    }
+
+    private Batch expireNextBatch(LocalDate today, Cursor cursor) {
+        JobStateEntity state = jobStatesRepo.findForUpdate(JOB_NAME)
+                .orElseGet(() -> jobStatesRepo.save(JobStateEntity.builder().name(JOB_NAME).watermark(LocalDate.EPOCH).build()));
+        Cursor from = cursor != null ? cursor : new Cursor(state.getWatermark(), FIRST_ID);
+
+        List<DepositsRepo.ExpiringDeposit> deposits = depositsRepo.findExpiring(state.getWatermark(), today,
+                from.expiresOn(), from.id(), PageRequest.of(0, batchSize));
+        if (!deposits.isEmpty()) {
+            List<UUID> depositIds = deposits.stream().map(DepositsRepo.ExpiringDeposit::getId).toList();
+            ledgerRepo.appendExpirations(depositIds);
+            depositsRepo.markExpired(depositIds);
+        }
+
+        if (deposits.size() < batchSize) {
+            //every deposit expired before today has been processed, yesterday is re-read by the next run
+            state.setWatermark(today.minusDays(1));
+            return new Batch(deposits.size(), null);
+        }
+        DepositsRepo.ExpiringDeposit last = deposits.get(deposits.size() - 1);
+        state.setWatermark(last.getExpiresOn());
+        return new Batch(deposits.size(), new Cursor(last.getExpiresOn(), last.getId()));
+    }
+
+    private record Cursor(LocalDate expiresOn, UUID id) {
+    }
+
+    private record Batch(int size, Cursor next) {
+    }
+}
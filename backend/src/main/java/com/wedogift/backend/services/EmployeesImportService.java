@@ -0,0 +1,20 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.dtos.EnumImportFormat;
+import com.wedogift.backend.dtos.ImportReportDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface EmployeesImportService {
+
+    /**
+     * Imports employees into a company, reading the stream line by line and inserting the employees by batches
+     *
+     * @param companyEmail the email of the company
+     * @param format       the format of the stream {@link EnumImportFormat}
+     * @param inputStream  the employees to import
+     * @return the number of imported and rejected rows, with the errors of the rejected rows
+     */
+    ImportReportDto importEmployees(String companyEmail, EnumImportFormat format, InputStream inputStream) throws IOException;
+}
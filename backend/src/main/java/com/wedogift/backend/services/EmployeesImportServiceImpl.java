@@ -0,0 +1,149 @@
+package com.wedogift.backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wedogift.backend.dtos.AddEmployeeDto;
+import com.wedogift.backend.dtos.EnumImportFormat;
+import com.wedogift.backend.dtos.ImportErrorDto;
+import com.wedogift.backend.dtos.ImportReportDto;
+import com.wedogift.backend.entities.CompanyEntity;
+import com.wedogift.backend.entities.EmployeeEntity;
+import com.wedogift.backend.exceptions.ResourceNotFoundException;
+import com.wedogift.backend.repos.CompaniesRepo;
+import com.wedogift.backend.repos.EmployeesRepo;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.wedogift.backend.services.CompaniesServiceImpl.NO_COMPANY_WITH_THE_GIVEN_ID_FOUND;
+
+@Slf4j
+@Service
+public class EmployeesImportServiceImpl implements EmployeesImportService {
+
+    private static final String CSV_HEADER = "name";
+    // Only the first errors are returned, the rejected rows are all counted
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final CompaniesRepo companiesRepo;
+    private final EmployeesRepo employeesRepo;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public EmployeesImportServiceImpl(CompaniesRepo companiesRepo,
+                                      EmployeesRepo employeesRepo,
+                                      ObjectMapper objectMapper,
+                                      Validator validator,
+                                      TransactionTemplate transactionTemplate,
+                                      @Value("${app.employees.import-batch-size}") int batchSize) {
+        this.companiesRepo = companiesRepo;
+        this.employeesRepo = employeesRepo;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ImportReportDto importEmployees(String companyEmail, EnumImportFormat format, InputStream inputStream) throws IOException {
+        CompanyEntity company = this.companiesRepo.findByEmail(companyEmail).orElseThrow(() -> new ResourceNotFoundException(NO_COMPANY_WITH_THE_GIVEN_ID_FOUND));
+
+        long imported = 0;
+        long rejected = 0;
+        List<ImportErrorDto> errors = new ArrayList<>();
+        List<EmployeeEntity> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && format == EnumImportFormat.CSV && CSV_HEADER.equalsIgnoreCase(line.strip()))) {
+                    continue;
+                }
+                String error = null;
+                try {
+                    AddEmployeeDto addEmployeeDto = parse(format, line);
+                    Set<ConstraintViolation<AddEmployeeDto>> violations = validator.validate(addEmployeeDto);
+                    if (violations.isEmpty()) {
+                        batch.add(EmployeeEntity.builder().id(UUID.randomUUID()).name(addEmployeeDto.name()).build());
+                    } else {
+                        error = violations.stream().map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                                .collect(Collectors.joining(", "));
+                    }
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+                if (error != null) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(ImportErrorDto.builder().line(lineNumber).message(error).build());
+                    }
+                }
+                if (batch.size() == batchSize) {
+                    imported += insert(company, batch);
+                    log.info("{} {} employees imported in company {}", "[APILOG]", imported, company.getId());
+                }
+            }
+        }
+        imported += insert(company, batch);
+        log.info("{} import done in company {} : {} employees imported, {} rows rejected", "[APILOG]", company.getId(), imported, rejected);
+        return ImportReportDto.builder().imported(imported).rejected(rejected).errors(errors).build();
+    }
+
+    private AddEmployeeDto parse(EnumImportFormat format, String line) throws JsonProcessingException {
+        return switch (format) {
+            case CSV -> AddEmployeeDto.builder().name(parseCsvName(line)).build();
+            case NDJSON -> objectMapper.readValue(line, AddEmployeeDto.class);
+        };
+    }
+
+    /**
+     * Returns the first column of a csv line, a quoted value may contain commas and "" for a quote
+     */
+    private static String parseCsvName(String line) {
+        String value = line.strip();
+        if (value.startsWith("\"")) {
+            //up to the quote closing this value, the following columns may be quoted too
+            StringBuilder name = new StringBuilder();
+            for (int i = 1; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c != '"') {
+                    name.append(c);
+                } else if (i + 1 < value.length() && value.charAt(i + 1) == '"') {
+                    name.append('"');
+                    i++;
+                } else {
+                    return name.toString();
+                }
+            }
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        int comma = value.indexOf(',');
+        return comma < 0 ? value : value.substring(0, comma).strip();
+    }
+
+    private int insert(CompanyEntity company, List<EmployeeEntity> batch) {
+        int size = batch.size();
+        if (size > 0) {
+            transactionTemplate.executeWithoutResult(status -> employeesRepo.insertAll(company.getId(), batch));
+            batch.clear();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,57 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.entities.JobStateEntity;
+import com.wedogift.backend.repos.EmployeeBalanceSnapshotsRepo;
+import com.wedogift.backend.repos.JobStatesRepo;
+import com.wedogift.backend.repos.LedgerRepo;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Folds the ledger entries recorded since the last run into the employees balance snapshots, so that reading a balance
+ * only sums the entries of the last {@code app.ledger.snapshot-cron} interval.
+ * The entries are folded up to the oldest running transaction: an entry id is taken when it is inserted, an entry with
+ * a lower id may still be committed by a running transaction, while every entry of an older transaction is visible.
+ */
+@Slf4j
+@Component
+public class LedgerSnapshotScheduler {
+
+    static final String JOB_NAME = "ledger-snapshot";
+
+    private final LedgerRepo ledgerRepo;
+    private final EmployeeBalanceSnapshotsRepo employeeBalanceSnapshotsRepo;
+    private final JobStatesRepo jobStatesRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    public LedgerSnapshotScheduler(LedgerRepo ledgerRepo,
+                                   EmployeeBalanceSnapshotsRepo employeeBalanceSnapshotsRepo,
+                                   JobStatesRepo jobStatesRepo,
+                                   TransactionTemplate transactionTemplate) {
+        this.ledgerRepo = ledgerRepo;
+        this.employeeBalanceSnapshotsRepo = employeeBalanceSnapshotsRepo;
+        this.jobStatesRepo = jobStatesRepo;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(cron = "${app.ledger.snapshot-cron}")
+    @Timed("wedoostore.ledger.snapshot")
+    public void takeSnapshots() {
+        Integer snapshots = transactionTemplate.execute(status -> {
+            JobStateEntity state = jobStatesRepo.findForUpdate(JOB_NAME)
+                    .orElseGet(() -> jobStatesRepo.save(JobStateEntity.builder().name(JOB_NAME).position(0L).build()));
+            long fromXactId = state.getPosition() == null ? 0 : state.getPosition();
+            long toXactId = ledgerRepo.findOldestRunningTransactionId();
+            if (toXactId <= fromXactId) {
+                return 0;
+            }
+            int taken = employeeBalanceSnapshotsRepo.takeSnapshots(fromXactId, toXactId);
+            state.setPosition(toXactId);
+            return taken;
+        });
+        log.info("{} {} employee balance snapshots taken", "[APILOG]", snapshots);
+    }
+}
@@ -0,0 +1,66 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.dtos.AddShopDto;
+import com.wedogift.backend.dtos.CardCombinationsDto;
+import com.wedogift.backend.dtos.ShopCardDto;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ShopsService {
+
+    /**
+     * Adds a shop or replaces its cards in stock
+     *
+     * @param addShopDto the shop and its cards
+     */
+    void saveShop(AddShopDto addShopDto);
+
+    /**
+     * Adds cards to the stock of a shop owned by the company
+     *
+     * @param companyEmail the email of the company
+     * @param shopId      the id of the shop
+     * @param shopCardDto the card value and the number of cards added
+     * @return the card value and its new quantity in stock
+     */
+    ShopCardDto restockCards(String companyEmail, long shopId, ShopCardDto shopCardDto);
+
+    /**
+     * Removes sold cards from the stock of a shop owned by the company
+     *
+     * @param companyEmail the email of the company
+     * @param shopId      the id of the shop
+     * @param shopCardDto the card value and the number of cards sold
+     * @return the card value and its new quantity in stock
+     */
+    ShopCardDto sellCards(String companyEmail, long shopId, ShopCardDto shopCardDto);
+
+    /**
+     * Searches the combinations of cards of a shop closest to an amount
+     *
+     * @param shopId the id of the shop
+     * @param amount the amount in euros
+     * @return the combination equal to the amount, and the closest ones below and above it
+     */
+    CardCombinationsDto searchCombination(long shopId, int amount);
+
+    /**
+     * Searches the combinations of cards of a shop for many amounts at once
+     *
+     * @param shopId  the id of the shop
+     * @param amounts the amounts in euros
+     * @return the combinations of each amount, ordered by amount
+     */
+    Map<Integer, CardCombinationsDto> searchCombinations(long shopId, List<Integer> amounts);
+
+    /**
+     * Searches the combinations of cards of a shop for every amount of a range
+     *
+     * @param shopId the id of the shop
+     * @param from   the first amount in euros
+     * @param to     the last amount in euros, inclusive
+     * @return the combinations of each amount, ordered by amount
+     */
+    Map<Integer, CardCombinationsDto> searchCombinations(long shopId, int from, int to);
+}
@@ -0,0 +1,216 @@
+package com.wedogift.backend.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.wedogift.backend.dtos.AddShopDto;
+import com.wedogift.backend.dtos.CardCombinationDto;
+import com.wedogift.backend.dtos.CardCombinationsDto;
+import com.wedogift.backend.dtos.ShopCardDto;
+import com.wedogift.backend.entities.ShopCardEntity;
+import com.wedogift.backend.entities.ShopEntity;
+import com.wedogift.backend.exceptions.ForbiddenException;
+import com.wedogift.backend.exceptions.InvalidParameterException;
+import com.wedogift.backend.exceptions.ResourceNotFoundException;
+import com.wedogift.backend.repos.ShopCardsRepo;
+import com.wedogift.backend.repos.ShopsRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.IntStream;
+
+@Slf4j
+@Service
+public class ShopsServiceImpl implements ShopsService {
+
+    private final ShopsRepo shopsRepo;
+    private final ShopCardsRepo shopCardsRepo;
+    private final int maxCombinationAmount;
+    private final int maxSearchAmounts;
+    // reads the committed quantity of a card once the sale or restock is committed
+    private final TransactionTemplate readQuantity;
+
+    // Inventories of the shops, loaded on the first search and updated on each sale or restock. They are
+    // rebuilt from the database after the ttl, the updates of an inventory do not reset it.
+    private final LoadingCache<Long, CardInventory> inventories;
+
+    public ShopsServiceImpl(ShopsRepo shopsRepo,
+                            ShopCardsRepo shopCardsRepo,
+                            @Value("${app.shops.max-combination-amount}") int maxCombinationAmount,
+                            @Value("${app.shops.max-search-amounts}") int maxSearchAmounts,
+                            @Value("${app.shops.combinations-cache-size}") long combinationsCacheSize,
+                            @Value("${app.shops.combinations-ttl}") Duration combinationsTtl,
+                            PlatformTransactionManager transactionManager) {
+        this.shopsRepo = shopsRepo;
+        this.shopCardsRepo = shopCardsRepo;
+        this.maxCombinationAmount = maxCombinationAmount;
+        this.maxSearchAmounts = maxSearchAmounts;
+        this.readQuantity = new TransactionTemplate(transactionManager);
+        this.readQuantity.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readQuantity.setReadOnly(true);
+        this.inventories = Caffeine.newBuilder()
+                .maximumSize(combinationsCacheSize)
+                .expireAfterWrite(combinationsTtl)
+                .build(this::loadInventory);
+    }
+
+    @Override
+    @Transactional
+    public void saveShop(AddShopDto addShopDto) {
+        ShopEntity existingShop = shopsRepo.findById(addShopDto.id())
+                .orElseGet(() -> ShopEntity.builder().id(addShopDto.id()).build());
+        existingShop.setName(addShopDto.name());
+        existingShop.setCompanyId(addShopDto.companyId());
+        existingShop.getCards().clear();
+        // flushes the removed cards before inserting the new ones, they share the (shop_id, card_value) unique key
+        ShopEntity shopEntity = shopsRepo.saveAndFlush(existingShop);
+        addShopDto.cards().forEach(card -> shopEntity.addCard(ShopCardEntity.builder()
+                .value(card.value()).quantity(card.quantity()).build()));
+        shopsRepo.save(shopEntity);
+        // a search between the invalidation and the commit would load the previous cards again
+        afterCommit(() -> inventories.invalidate(addShopDto.id()));
+    }
+
+    @Override
+    @Transactional
+    public ShopCardDto restockCards(String companyEmail, long shopId, ShopCardDto shopCardDto) {
+        checkOwner(companyEmail, shopId);
+        shopCardsRepo.addQuantity(shopId, shopCardDto.value(), shopCardDto.quantity());
+        return updateInventory(shopId, shopCardDto.value());
+    }
+
+    @Override
+    @Transactional
+    public ShopCardDto sellCards(String companyEmail, long shopId, ShopCardDto shopCardDto) {
+        checkOwner(companyEmail, shopId);
+        if (shopCardsRepo.removeQuantity(shopId, shopCardDto.value(), shopCardDto.quantity()) == 0) {
+            throw new InvalidParameterException("Not enough cards of " + shopCardDto.value() + " in stock");
+        }
+        return updateInventory(shopId, shopCardDto.value());
+    }
+
+    private void checkOwner(String companyEmail, long shopId) {
+        if (!shopsRepo.existsByIdAndCompanyEmail(shopId, companyEmail)) {
+            if (!shopsRepo.existsById(shopId)) {
+                throw new ResourceNotFoundException("Shop not found");
+            }
+            throw new ForbiddenException("The shop is not owned by the company");
+        }
+    }
+
+    /**
+     * Applies the new quantity of a card to the loaded inventory of the shop once the transaction is committed,
+     * a rolled back sale or restock leaves the inventory unchanged.
+     */
+    private ShopCardDto updateInventory(long shopId, int value) {
+        int quantity = shopCardsRepo.findQuantity(shopId, value);
+        afterCommit(() -> refreshInventory(shopId, value));
+        log.info("{} Shop {} has {} cards of {}", "[APILOG]", shopId, quantity, value);
+        return ShopCardDto.builder().value(value).quantity(quantity).build();
+    }
+
+    /**
+     * Runs an update of the loaded inventories once the current transaction is committed, right away without one
+     */
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Re-reads the committed quantity of a card into the loaded inventory of the shop. The quantity is read while
+     * holding the lock of the inventory, the last of concurrent refreshes applies the quantity of the last commit.
+     */
+    private void refreshInventory(long shopId, int value) {
+        CardInventory inventory = inventories.getIfPresent(shopId);
+        if (inventory != null) {
+            inventory.refreshQuantity(value, () -> readQuantity.execute(status -> shopCardsRepo.findQuantity(shopId, value)));
+        }
+    }
+
+    @Override
+    public CardCombinationsDto searchCombination(long shopId, int amount) {
+        if (amount < 0) {
+            throw new InvalidParameterException("Invalid amount");
+        }
+        return search(inventories.get(shopId).snapshot(), amount, new HashMap<>());
+    }
+
+    @Override
+    public Map<Integer, CardCombinationsDto> searchCombinations(long shopId, List<Integer> amounts) {
+        if (amounts.isEmpty() || amounts.size() > maxSearchAmounts) {
+            throw new InvalidParameterException("Between 1 and " + maxSearchAmounts + " amounts can be searched");
+        }
+        if (amounts.stream().anyMatch(amount -> amount == null || amount < 0)) {
+            throw new InvalidParameterException("Invalid amount");
+        }
+        return search(shopId, amounts.stream().mapToInt(Integer::intValue));
+    }
+
+    @Override
+    public Map<Integer, CardCombinationsDto> searchCombinations(long shopId, int from, int to) {
+        if (from < 0 || to < from) {
+            throw new InvalidParameterException("Invalid amount range");
+        }
+        if ((long) to - from + 1 > maxSearchAmounts) {
+            throw new InvalidParameterException("Between 1 and " + maxSearchAmounts + " amounts can be searched");
+        }
+        return search(shopId, IntStream.rangeClosed(from, to));
+    }
+
+    private Map<Integer, CardCombinationsDto> search(long shopId, IntStream amounts) {
+        // one snapshot for all the amounts, the sales and restocks during the search are not seen
+        CardCombinations shopCombinations = inventories.get(shopId).snapshot();
+        // neighbouring amounts share their floor and ceil, each combination is rebuilt once per search
+        Map<Integer, CardCombinationDto> combinationsBySum = new HashMap<>();
+        Map<Integer, CardCombinationsDto> results = new TreeMap<>();
+        amounts.forEach(amount -> results.computeIfAbsent(amount,
+                key -> search(shopCombinations, key, combinationsBySum)));
+        return results;
+    }
+
+    private static CardCombinationsDto search(CardCombinations shopCombinations, int amount,
+                                              Map<Integer, CardCombinationDto> combinationsBySum) {
+        OptionalInt floor = shopCombinations.floor(amount);
+        OptionalInt ceil = shopCombinations.ceil(amount);
+        CardCombinationDto floorDto = floor.isPresent() ? combinationsBySum.computeIfAbsent(floor.getAsInt(),
+                sum -> toDto(shopCombinations, sum)) : null;
+        CardCombinationDto ceilDto = ceil.isPresent() ? combinationsBySum.computeIfAbsent(ceil.getAsInt(),
+                sum -> toDto(shopCombinations, sum)) : null;
+        boolean equal = floor.isPresent() && floor.getAsInt() == amount;
+        return CardCombinationsDto.builder().equal(equal ? floorDto : null).floor(floorDto).ceil(ceilDto).build();
+    }
+
+    private CardInventory loadInventory(Long shopId) {
+        if (!shopsRepo.existsById(shopId)) {
+            throw new ResourceNotFoundException("Shop not found");
+        }
+        Map<Integer, Integer> stock = new HashMap<>();
+        shopCardsRepo.findByShopId(shopId).forEach(card -> stock.put(card.getValue(), card.getQuantity()));
+        long start = System.nanoTime();
+        CardInventory inventory = new CardInventory(shopId, stock, maxCombinationAmount);
+        log.info("{} Combinations of shop {} built in {} ms up to {}", "[APILOG]", shopId,
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), inventory.snapshot().maxSum());
+        return inventory;
+    }
+
+    private static CardCombinationDto toDto(CardCombinations shopCombinations, int sum) {
+        return CardCombinationDto.builder().value(sum).cards(shopCombinations.cards(sum)).build();
+    }
+}
@@ -0,0 +1,78 @@
+-- Schema previously created by hibernate ddl-auto=update.
+-- Every statement is idempotent so that databases created before the migrations are baselined by this script.
+
+create table if not exists companies
+(
+    id       uuid not null primary key,
+    email    varchar(255) unique,
+    password varchar(255),
+    name     varchar(255),
+    balance  float(53)
+);
+
+create table if not exists employees
+(
+    id         uuid not null primary key,
+    name       varchar(255),
+    company_id uuid references companies (id)
+);
+
+create table if not exists deposits
+(
+    id           uuid    not null primary key,
+    balance      float(53),
+    deposit_date date,
+    deposit_type varchar(255),
+    expires_on   date,
+    expired      boolean not null default false,
+    employee_id  uuid references employees (id)
+);
+
+-- columns added after the first releases, missing from the databases created by hibernate before them
+alter table deposits
+    add column if not exists expires_on date,
+    add column if not exists expired    boolean not null default false;
+
+-- expiry date of the deposits made before it was stored, see EnumDepositType.expirationDate
+update deposits
+set expires_on = case deposit_type
+                     when 'MEALS' then make_date(extract(year from deposit_date)::int + 1, 3, 1) - 1
+                     when 'GIFTS' then deposit_date + 365
+    end
+where expires_on is null;
+
+create table if not exists employee_balances
+(
+    id           uuid         not null primary key,
+    employee_id  uuid         not null references employees (id) on delete cascade,
+    deposit_type varchar(255) not null,
+    balance      float(53),
+    constraint uk_employee_balances_employee_type unique (employee_id, deposit_type)
+);
+
+-- balances of the employees whose deposits were made before the balances were maintained. The deposits not swept
+-- yet are all counted, the expiry job removes the expired ones from the balances on its next run.
+insert into employee_balances (id, employee_id, deposit_type, balance)
+select gen_random_uuid(), employee_id, deposit_type, sum(balance)
+from deposits
+where employee_id is not null
+  and deposit_type is not null
+  and not expired
+group by employee_id, deposit_type
+on conflict (employee_id, deposit_type) do nothing;
+
+create table if not exists job_states
+(
+    name      varchar(255) not null primary key,
+    watermark date
+);
+
+-- findByIdAndCompany, findByCompanyAndIdIn and the keyset pages of findPageByCompanyId
+create index if not exists idx_employees_company_id on employees (company_id, id);
+
+-- deposits of an employee, and the foreign key checks when an employee is deleted
+create index if not exists idx_deposits_employee_id on deposits (employee_id, expires_on);
+
+-- keyset batches of the expiry job, only the deposits still counted in a balance
+drop index if exists idx_deposits_expires_on;
+create index idx_deposits_expires_on on deposits (expires_on, id) where not expired;
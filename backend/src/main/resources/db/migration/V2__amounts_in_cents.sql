@@ -0,0 +1,15 @@
+-- Amounts are stored in cents instead of floating point currency units
+alter table companies
+    alter column balance type bigint using coalesce(round(balance * 100), 0),
+    alter column balance set default 0,
+    alter column balance set not null;
+
+alter table deposits
+    alter column balance type bigint using coalesce(round(balance * 100), 0),
+    alter column balance set default 0,
+    alter column balance set not null;
+
+alter table employee_balances
+    alter column balance type bigint using coalesce(round(balance * 100), 0),
+    alter column balance set default 0,
+    alter column balance set not null;
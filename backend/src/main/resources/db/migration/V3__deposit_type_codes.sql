@@ -0,0 +1,11 @@
+-- Deposit types are stored as the smallint codes of EnumDepositType instead of their names.
+-- Any other name fails the cast of the else branch, and with it the migration, instead of becoming null.
+alter table deposits
+    alter column deposit_type type smallint using case deposit_type when 'MEALS' then 1 when 'GIFTS' then 2 else deposit_type::smallint end;
+
+alter table employee_balances
+    alter column deposit_type type smallint using case deposit_type when 'MEALS' then 1 when 'GIFTS' then 2 else deposit_type::smallint end;
+
+-- covering index of the deposits of an employee, their balance is summed from the index only
+drop index if exists idx_deposits_employee_id;
+create index idx_deposits_employee_id on deposits (employee_id, expires_on) include (balance);
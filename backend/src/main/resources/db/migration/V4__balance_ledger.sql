@@ -0,0 +1,38 @@
+-- Append-only history of the balance movements: company debits, employee credits and expirations.
+-- No foreign keys, the history outlives the companies, employees and deposits it refers to.
+create table balance_ledger
+(
+    id           bigint generated always as identity primary key,
+    entry_type   smallint    not null,
+    company_id   uuid,
+    employee_id  uuid,
+    deposit_id   uuid,
+    deposit_type smallint,
+    -- in cents, negative for debits and expirations
+    amount       bigint      not null,
+    recorded_at  timestamptz not null default clock_timestamp()
+);
+
+-- tail of the ledger of an employee after its last snapshot, summed from the index only
+create index idx_balance_ledger_employee_id on balance_ledger (employee_id, id) include (amount) where employee_id is not null;
+
+-- balance of an employee up to a ledger entry, taken periodically by the LedgerSnapshotScheduler
+create table employee_balance_snapshots
+(
+    employee_id uuid        not null primary key references employees (id) on delete cascade,
+    ledger_id   bigint      not null,
+    balance     bigint      not null,
+    taken_at    timestamptz not null
+);
+
+-- the current balances become the first snapshots, before any ledger entry
+insert into employee_balance_snapshots (employee_id, ledger_id, balance, taken_at)
+select employee_id, 0, sum(balance), now()
+from employee_balances
+group by employee_id;
+
+drop table employee_balances;
+
+-- position of a job in an ordered log, such as the last ledger entry already snapshotted
+alter table job_states
+    add column position bigint;
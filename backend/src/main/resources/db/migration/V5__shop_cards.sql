@@ -0,0 +1,16 @@
+-- Gift cards in stock in the shops, the combinations of an amount are computed from them
+create table shops
+(
+    id   bigint not null primary key,
+    name varchar(255)
+);
+
+create table shop_cards
+(
+    id         uuid    not null primary key,
+    shop_id    bigint  not null references shops (id) on delete cascade,
+    -- in euros
+    card_value integer not null check (card_value > 0),
+    quantity   integer not null check (quantity >= 0),
+    constraint uk_shop_cards_shop_id_card_value unique (shop_id, card_value)
+);
@@ -0,0 +1,39 @@
+-- Ledger entries are folded into the snapshots by transaction instead of by id: an identity id is taken when the entry
+-- is inserted, so a transaction can commit an entry with a lower id after another one committed a higher id.
+-- Every entry of a transaction older than the oldest running one is visible, none can appear there later.
+
+-- the entries not yet included in the snapshots are folded first, all the existing entries are then before the snapshots
+insert into employee_balance_snapshots (employee_id, ledger_id, balance, taken_at)
+select l.employee_id, 0, sum(l.amount), now()
+from balance_ledger l
+join employees e on e.id = l.employee_id
+left join employee_balance_snapshots s on s.employee_id = l.employee_id
+where l.id > coalesce(s.ledger_id, 0)
+group by l.employee_id
+on conflict (employee_id) do update
+set balance  = employee_balance_snapshots.balance + excluded.balance,
+    taken_at = excluded.taken_at;
+
+-- transaction which recorded the entry, 0 for the entries already folded
+alter table balance_ledger
+    add column xact_id bigint not null default 0;
+alter table balance_ledger
+    alter column xact_id set default cast(cast(pg_current_xact_id() as text) as bigint);
+
+-- the snapshots include every entry of the transactions before xact_id
+alter table employee_balance_snapshots
+    drop column ledger_id,
+    add column xact_id bigint not null default 1;
+alter table employee_balance_snapshots
+    alter column xact_id drop default;
+
+insert into job_states (name, position)
+values ('ledger-snapshot', 1)
+on conflict (name) do update set position = excluded.position;
+
+-- tail of the ledger of an employee after its last snapshot, summed from the index only
+drop index idx_balance_ledger_employee_id;
+create index idx_balance_ledger_employee_id on balance_ledger (employee_id, xact_id) include (amount) where employee_id is not null;
+
+-- entries of the transactions folded by a run of the LedgerSnapshotScheduler
+create index idx_balance_ledger_xact_id on balance_ledger (xact_id);
@@ -0,0 +1,4 @@
+-- The balance of an employee leaves out the deposits expired since the last run of the DepositExpiryScheduler.
+-- Only the deposits not yet swept are indexed, so the read stays bounded by the deposits still counted in the balance.
+drop index if exists idx_deposits_employee_id;
+create index idx_deposits_employee_id on deposits (employee_id, expires_on) include (balance) where not expired;
@@ -0,0 +1,4 @@
+-- Company allowed to sell and restock the cards of a shop, null when no company may change its stock.
+-- No foreign key, the shops outlive the companies deleted or truncated when the demo data is seeded again.
+alter table shops
+    add column company_id uuid;
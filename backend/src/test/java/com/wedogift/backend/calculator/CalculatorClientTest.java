@@ -0,0 +1,207 @@
+package com.wedogift.backend.calculator;
+
+import com.sun.net.httpserver.HttpServer;
+import com.wedogift.backend.config.CalculatorClientConfig;
+import com.wedogift.backend.dtos.CardCombinationsDto;
+import com.wedogift.backend.exceptions.ResourceNotFoundException;
+import com.wedogift.backend.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calls an in-process stub of the calculator-server route
+ */
+class CalculatorClientTest {
+
+    private static final String TOKEN = "tokenTest123";
+
+    private HttpServer calculator;
+    private ExecutorService calculatorThreads;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMillis;
+    private volatile String authorization;
+
+    private CloseableHttpClient httpClient;
+    private CalculatorClient calculatorClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        calculator = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        calculatorThreads = Executors.newCachedThreadPool();
+        calculator.setExecutor(calculatorThreads);
+        calculator.createContext("/shop/5/search-combination", exchange -> {
+            requests.incrementAndGet();
+            authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            sleep(delayMillis);
+            byte[] body = (status == 200
+                    ? "{\"equal\":{\"value\":20,\"cards\":[20]},\"floor\":{\"value\":20,\"cards\":[20]},\"ceil\":{\"value\":20,\"cards\":[20]}}"
+                    : "{\"status\":" + status + ",\"message\":\"Shop not found!\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        calculator.start();
+
+        httpClient = new CalculatorClientConfig().calculatorHttpClient(4, Duration.ofSeconds(1), Duration.ofMillis(500));
+        calculatorClient = client(restTemplate(), 4, 100, Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        calculatorClient.shutdown();
+        httpClient.close();
+        calculator.stop(0);
+        calculatorThreads.shutdownNow();
+    }
+
+    @Test
+    void searchCombination_ShouldCallTheCalculatorOncePerAmount() {
+        CardCombinationsDto combinations = calculatorClient.searchCombination(5L, 20);
+        calculatorClient.searchCombination(5L, 20);
+
+        assertEquals(20, combinations.equal().value());
+        assertEquals(List.of(20), combinations.ceil().cards());
+        assertEquals(1, requests.get());
+        assertEquals(TOKEN, authorization);
+    }
+
+    @Test
+    void concurrentSearches_ShouldShareOneRequest() throws Exception {
+        delayMillis = 200;
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<CardCombinationsDto>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(callers.submit(() -> calculatorClient.searchCombination(5L, 20)));
+            }
+            for (Future<CardCombinationsDto> result : results) {
+                assertEquals(20, result.get(5, TimeUnit.SECONDS).equal().value());
+            }
+        } finally {
+            callers.shutdown();
+        }
+
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void unknownShop_ShouldThrowResourceNotFoundException() {
+        status = 400;
+
+        assertThrows(ResourceNotFoundException.class, () -> calculatorClient.searchCombination(5L, 20));
+        assertThrows(ResourceNotFoundException.class, () -> calculatorClient.searchCombination(5L, 20));
+
+        assertEquals(2, requests.get());
+        assertEquals(CircuitBreaker.State.CLOSED, calculatorClient.getCircuitBreakerState());
+    }
+
+    @Test
+    void timeouts_ShouldOpenTheCircuit() {
+        delayMillis = 1000;
+
+        assertThrows(ServiceUnavailableException.class, () -> calculatorClient.searchCombination(5L, 20));
+        assertThrows(ServiceUnavailableException.class, () -> calculatorClient.searchCombination(5L, 21));
+        assertEquals(CircuitBreaker.State.OPEN, calculatorClient.getCircuitBreakerState());
+
+        assertThrows(ServiceUnavailableException.class, () -> calculatorClient.searchCombination(5L, 22));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void searchCombination_WhenTheQueueIsFull_ShouldThrowServiceUnavailableException() throws Exception {
+        delayMillis = 300;
+        CalculatorClient singleConnectionClient = client(restTemplate(), 1, 1, Duration.ofMillis(500));
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<CardCombinationsDto> running = callers.submit(() -> singleConnectionClient.searchCombination(5L, 20));
+            while (requests.get() == 0) {
+                Thread.sleep(5);
+            }
+            Future<CardCombinationsDto> queued = callers.submit(() -> singleConnectionClient.searchCombination(5L, 21));
+            while (singleConnectionClient.getQueuedRequests() == 0) {
+                Thread.sleep(5);
+            }
+
+            assertThrows(ServiceUnavailableException.class, () -> singleConnectionClient.searchCombination(5L, 22));
+            assertEquals(20, running.get(5, TimeUnit.SECONDS).equal().value());
+            assertEquals(20, queued.get(5, TimeUnit.SECONDS).equal().value());
+        } finally {
+            callers.shutdown();
+            singleConnectionClient.shutdown();
+        }
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void searchCombination_ShouldWaitAtMostTheConnectAndResponseTimeouts() {
+        delayMillis = 400;
+        CalculatorClient impatientClient = client(restTemplate(), 4, 100, Duration.ofMillis(50));
+        try {
+            long start = System.nanoTime();
+            assertThrows(ServiceUnavailableException.class, () -> impatientClient.searchCombination(5L, 20));
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(400)) < 0);
+        } finally {
+            impatientClient.shutdown();
+        }
+    }
+
+    @Test
+    void unexpectedFailures_ShouldOpenTheCircuit() {
+        CalculatorClient failingClient = client(new RestTemplateBuilder()
+                .rootUri("http://localhost:" + calculator.getAddress().getPort())
+                .additionalInterceptors((request, body, execution) -> {
+                    throw new IllegalStateException("Unexpected failure");
+                })
+                .build(), 4, 100, Duration.ofMillis(500));
+        try {
+            assertThrows(IllegalStateException.class, () -> failingClient.searchCombination(5L, 20));
+            assertThrows(IllegalStateException.class, () -> failingClient.searchCombination(5L, 21));
+
+            assertEquals(CircuitBreaker.State.OPEN, failingClient.getCircuitBreakerState());
+            assertThrows(ServiceUnavailableException.class, () -> failingClient.searchCombination(5L, 22));
+        } finally {
+            failingClient.shutdown();
+        }
+    }
+
+    private RestTemplate restTemplate() {
+        return new CalculatorClientConfig().calculatorRestTemplate(new RestTemplateBuilder(), httpClient,
+                "http://localhost:" + calculator.getAddress().getPort(), TOKEN);
+    }
+
+    /**
+     * @param timeout both the connect and the response timeouts of a caller
+     */
+    private static CalculatorClient client(RestTemplate restTemplate, int maxConnections, int maxQueuedRequests, Duration timeout) {
+        return new CalculatorClient(restTemplate, new SimpleMeterRegistry(), maxConnections, maxQueuedRequests,
+                timeout, timeout, 100, Duration.ofMinutes(5), 2, Duration.ofMinutes(1));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
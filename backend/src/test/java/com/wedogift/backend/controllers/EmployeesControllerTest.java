@@ -1,15 +1,18 @@
 package com.wedogift.backend.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.wedogift.backend.dtos.DepositBalanceDto;
-import com.wedogift.backend.dtos.EnumDepositType;
-import com.wedogift.backend.dtos.GetBalanceDto;
+import com.wedogift.backend.dtos.*;
+import com.wedogift.backend.exceptions.InvalidParameterException;
 import com.wedogift.backend.jwt.JwtProvider;
 import com.wedogift.backend.services.CompaniesService;
+import com.wedogift.backend.services.DepositCoalescer;
+import com.wedogift.backend.services.EmployeesImportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,6 +26,10 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
@@ -30,6 +37,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(EmployeesController.class)
+@Import(SimpleMeterRegistry.class)
 class EmployeesControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -40,6 +48,12 @@ class EmployeesControllerTest {
     @MockBean
     private CompaniesService companiesService;
 
+    @MockBean
+    private EmployeesImportService employeesImportService;
+
+    @MockBean
+    private DepositCoalescer depositCoalescer;
+
     @MockBean
     private JwtProvider jwtProvider;
 
@@ -64,7 +78,7 @@ class EmployeesControllerTest {
 
         mockMvc.perform(requestBuilder)
                 .andExpect(status().isNoContent());
-
+        verify(depositCoalescer).deposit("user", employeeId, depositBalanceDto);
     }
 
     @Test
@@ -91,6 +105,152 @@ class EmployeesControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void depositUsersBalance() throws Exception {
+        String companyEmail = "company@wedoostore.com";
+        UUID employeeId = UUID.randomUUID();
+        BatchDepositDto batchDepositDto = BatchDepositDto.builder().deposits(List.of(BatchDepositItemDto.builder()
+                .employeeId(employeeId).depositDate(LocalDate.now()).balance(50.0).enumDepositType(EnumDepositType.MEALS).build())).build();
+        List<BatchDepositResultDto> results = List.of(BatchDepositResultDto.builder()
+                .employeeId(employeeId).balance(50.0).status(EnumDepositStatus.DEPOSITED).build());
+
+        when(companiesService.depositBalanceToEmployees(eq(companyEmail), any(BatchDepositDto.class))).thenReturn(results);
+
+        String jwtToken = "FAKE";
+        RequestBuilder requestBuilder = MockMvcRequestBuilders
+                .post("/api/v1/employees/deposits")
+                .with(jwt().authorities(List.of(new SimpleGrantedAuthority("ROLE_USER")))
+                        .jwt(builder -> builder.tokenValue(jwtToken)
+                                .header("Authorization Bearer ", jwtToken)))
+                .with(user(companyEmail))
+                .content(objectMapper.writeValueAsString(batchDepositDto))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(EnumDepositStatus.DEPOSITED.name()));
+    }
+
+    @Test
+    void depositUsersBalance_WithANegativeBalance_ShouldReturn400() throws Exception {
+        String companyEmail = "company@wedoostore.com";
+        BatchDepositDto batchDepositDto = BatchDepositDto.builder().deposits(List.of(BatchDepositItemDto.builder()
+                .employeeId(UUID.randomUUID()).depositDate(LocalDate.now()).balance(-50.0).enumDepositType(EnumDepositType.MEALS).build())).build();
+
+        String jwtToken = "FAKE";
+        RequestBuilder requestBuilder = MockMvcRequestBuilders
+                .post("/api/v1/employees/deposits")
+                .with(jwt().authorities(List.of(new SimpleGrantedAuthority("ROLE_USER")))
+                        .jwt(builder -> builder.tokenValue(jwtToken)
+                                .header("Authorization Bearer ", jwtToken)))
+                .with(user(companyEmail))
+                .content(objectMapper.writeValueAsString(batchDepositDto))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isBadRequest());
+        verify(companiesService, never()).depositBalanceToEmployees(any(), any());
+    }
+
+    @Test
+    void importUsers() throws Exception {
+        String companyEmail = "company@wedoostore.com";
+        ImportReportDto importReportDto = ImportReportDto.builder().imported(2).rejected(0).errors(List.of()).build();
+
+        when(employeesImportService.importEmployees(eq(companyEmail), eq(EnumImportFormat.CSV), any())).thenReturn(importReportDto);
+
+        String jwtToken = "FAKE";
+        RequestBuilder requestBuilder = MockMvcRequestBuilders
+                .post("/api/v1/employees/import")
+                .with(jwt().authorities(List.of(new SimpleGrantedAuthority("ROLE_USER")))
+                        .jwt(builder -> builder.tokenValue(jwtToken)
+                                .header("Authorization Bearer ", jwtToken)))
+                .with(user(companyEmail))
+                .content("name\nJohn\nJessica\n")
+                .contentType("text/csv")
+                .accept(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+    }
+
+    @Test
+    void getCompanyEmployees_FirstPage() throws Exception {
+        String companyEmail = "company@wedoostore.com";
+        UUID employeeId = UUID.randomUUID();
+        EmployeesPageDto page = EmployeesPageDto.builder()
+                .employees(List.of(DisplayEmployeeDto.builder().id(employeeId).name("John").balance(50.0).build()))
+                .nextPageToken("next").build();
+
+        when(companiesService.getCompanyEmplyees(companyEmail, 100, null)).thenReturn(page);
+
+        String jwtToken = "FAKE";
+        RequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get("/api/v1/employees")
+                .accept(MediaType.APPLICATION_JSON)
+                .with(jwt().authorities(List.of(new SimpleGrantedAuthority("ROLE_USER")))
+                        .jwt(builder -> builder.tokenValue(jwtToken)
+                                .header("Authorization Bearer ", jwtToken)))
+                .with(user(companyEmail));
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees[0].id").value(employeeId.toString()))
+                .andExpect(jsonPath("$.employees[0].name").value("John"))
+                .andExpect(jsonPath("$.nextPageToken").value("next"));
+    }
+
+    @Test
+    void getCompanyEmployees_NextPage() throws Exception {
+        String companyEmail = "company@wedoostore.com";
+        UUID employeeId = UUID.randomUUID();
+        EmployeesPageDto page = EmployeesPageDto.builder()
+                .employees(List.of(DisplayEmployeeDto.builder().id(employeeId).name("Jessica").balance(0.0).build()))
+                .build();
+
+        when(companiesService.getCompanyEmplyees(companyEmail, 1, "next")).thenReturn(page);
+
+        String jwtToken = "FAKE";
+        RequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get("/api/v1/employees")
+                .param("size", "1")
+                .param("pageToken", "next")
+                .accept(MediaType.APPLICATION_JSON)
+                .with(jwt().authorities(List.of(new SimpleGrantedAuthority("ROLE_USER")))
+                        .jwt(builder -> builder.tokenValue(jwtToken)
+                                .header("Authorization Bearer ", jwtToken)))
+                .with(user(companyEmail));
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees[0].name").value("Jessica"))
+                .andExpect(jsonPath("$.nextPageToken").isEmpty());
+    }
+
+    @Test
+    void getCompanyEmployees_WithInvalidPageToken_ShouldReturn400() throws Exception {
+        String companyEmail = "company@wedoostore.com";
+
+        when(companiesService.getCompanyEmplyees(companyEmail, 100, "invalid"))
+                .thenThrow(new InvalidParameterException("Invalid page token"));
+
+        String jwtToken = "FAKE";
+        RequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get("/api/v1/employees")
+                .param("pageToken", "invalid")
+                .accept(MediaType.APPLICATION_JSON)
+                .with(jwt().authorities(List.of(new SimpleGrantedAuthority("ROLE_USER")))
+                        .jwt(builder -> builder.tokenValue(jwtToken)
+                                .header("Authorization Bearer ", jwtToken)))
+                .with(user(companyEmail));
+
+        mockMvc.perform(requestBuilder)
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getUserBalance() throws Exception {
         String companyEmail = "company@wedoostore.com";
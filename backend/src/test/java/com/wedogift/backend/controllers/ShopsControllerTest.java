@@ -0,0 +1,184 @@
+package com.wedogift.backend.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wedogift.backend.calculator.CalculatorClient;
+import com.wedogift.backend.dtos.CardCombinationDto;
+import com.wedogift.backend.dtos.CardCombinationsDto;
+import com.wedogift.backend.dtos.ShopCardDto;
+import com.wedogift.backend.exceptions.ForbiddenException;
+import com.wedogift.backend.exceptions.ResourceNotFoundException;
+import com.wedogift.backend.exceptions.ServiceUnavailableException;
+import com.wedogift.backend.jwt.JwtProvider;
+import com.wedogift.backend.services.CompaniesService;
+import com.wedogift.backend.services.ShopsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ShopsController.class)
+@Import(SimpleMeterRegistry.class)
+class ShopsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private ShopsService shopsService;
+
+    @MockBean
+    private CalculatorClient calculatorClient;
+
+    @MockBean
+    private CompaniesService companiesService;
+
+    @MockBean
+    private JwtProvider jwtProvider;
+
+
+    @Test
+    void searchCombination() throws Exception {
+        CardCombinationsDto combinations = CardCombinationsDto.builder()
+                .floor(CardCombinationDto.builder().value(22).cards(List.of(22)).build())
+                .ceil(CardCombinationDto.builder().value(25).cards(List.of(25)).build()).build();
+
+        when(shopsService.searchCombination(5L, 23)).thenReturn(combinations);
+
+        mockMvc.perform(searchCombination(5L, "23"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.equal").doesNotExist())
+                .andExpect(jsonPath("$.floor.value").value(22))
+                .andExpect(jsonPath("$.ceil.cards[0]").value(25));
+    }
+
+    @Test
+    void searchCombination_WithUnknownShop_ShouldReturn404() throws Exception {
+        when(shopsService.searchCombination(6L, 23)).thenThrow(new ResourceNotFoundException("Shop not found"));
+
+        mockMvc.perform(searchCombination(6L, "23"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void searchCombination_WithInvalidAmount_ShouldReturn400() throws Exception {
+        mockMvc.perform(searchCombination(5L, "twenty"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchCalculatorCombination_WithUnavailableCalculator_ShouldReturn503() throws Exception {
+        when(calculatorClient.searchCombination(5L, 23)).thenThrow(new ServiceUnavailableException("Combination calculator unavailable"));
+
+        mockMvc.perform(authenticated(MockMvcRequestBuilders.get("/api/v1/shops/{shopId}/calculator/search-combination", 5L))
+                        .param("amount", "23"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void searchCombinations() throws Exception {
+        Map<Integer, CardCombinationsDto> combinations = new TreeMap<>(Map.of(
+                20, CardCombinationsDto.builder().equal(CardCombinationDto.builder().value(20).cards(List.of(20)).build()).build(),
+                23, CardCombinationsDto.builder().ceil(CardCombinationDto.builder().value(25).cards(List.of(25)).build()).build()));
+
+        when(shopsService.searchCombinations(5L, List.of(20, 23))).thenReturn(combinations);
+
+        mockMvc.perform(searchCombinations(5L).param("amounts", "20,23"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['20'].equal.value").value(20))
+                .andExpect(jsonPath("$['23'].ceil.cards[0]").value(25));
+    }
+
+    @Test
+    void searchCombinations_WithRange() throws Exception {
+        when(shopsService.searchCombinations(5L, 20, 30)).thenReturn(Map.of());
+
+        mockMvc.perform(searchCombinations(5L).param("from", "20").param("to", "30"))
+                .andExpect(status().isOk());
+        verify(shopsService).searchCombinations(5L, 20, 30);
+    }
+
+    @Test
+    void searchCombinations_WithAmountsAndRange_ShouldReturn400() throws Exception {
+        mockMvc.perform(searchCombinations(5L).param("amounts", "20").param("from", "20"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(shopsService);
+    }
+
+    @Test
+    void sellCards() throws Exception {
+        ShopCardDto shopCardDto = ShopCardDto.builder().value(20).quantity(1).build();
+
+        when(shopsService.sellCards("company@wedoostore.com", 5L, shopCardDto)).thenReturn(ShopCardDto.builder().value(20).quantity(9).build());
+
+        mockMvc.perform(cards(5L, "sell")
+                        .content(objectMapper.writeValueAsString(shopCardDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(9));
+    }
+
+    @Test
+    void sellCards_WithAShopOfAnotherCompany_ShouldReturn403() throws Exception {
+        ShopCardDto shopCardDto = ShopCardDto.builder().value(20).quantity(1).build();
+
+        when(shopsService.sellCards("company@wedoostore.com", 6L, shopCardDto))
+                .thenThrow(new ForbiddenException("The shop is not owned by the company"));
+
+        mockMvc.perform(cards(6L, "sell")
+                        .content(objectMapper.writeValueAsString(shopCardDto)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void restockCards_WithInvalidInput_ShouldReturn400() throws Exception {
+        ShopCardDto shopCardDto = ShopCardDto.builder().value(-20).quantity(1).build();
+
+        mockMvc.perform(cards(5L, "restock")
+                        .content(objectMapper.writeValueAsString(shopCardDto)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(shopsService);
+    }
+
+    private static MockHttpServletRequestBuilder cards(long shopId, String operation) {
+        return authenticated(MockMvcRequestBuilders.post("/api/v1/shops/{shopId}/cards/" + operation, shopId))
+                .contentType(MediaType.APPLICATION_JSON);
+    }
+
+    private static MockHttpServletRequestBuilder searchCombinations(long shopId) {
+        return authenticated(MockMvcRequestBuilders.get("/api/v1/shops/{shopId}/search-combinations", shopId));
+    }
+
+    private static RequestBuilder searchCombination(long shopId, String amount) {
+        return authenticated(MockMvcRequestBuilders.get("/api/v1/shops/{shopId}/search-combination", shopId))
+                .param("amount", amount);
+    }
+
+    private static MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder requestBuilder) {
+        String jwtToken = "FAKE";
+        return requestBuilder
+                .accept(MediaType.APPLICATION_JSON)
+                .with(jwt().authorities(List.of(new SimpleGrantedAuthority("ROLE_USER")))
+                        .jwt(builder -> builder.tokenValue(jwtToken)
+                                .header("Authorization Bearer ", jwtToken)))
+                .with(user("company@wedoostore.com"));
+    }
+}
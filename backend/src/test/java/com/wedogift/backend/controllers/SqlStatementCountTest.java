@@ -0,0 +1,126 @@
+package com.wedogift.backend.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wedogift.backend.AbstractPostgresTest;
+import com.wedogift.backend.dtos.AddCompanyDto;
+import com.wedogift.backend.dtos.AddEmployeeDto;
+import com.wedogift.backend.dtos.DepositBalanceDto;
+import com.wedogift.backend.dtos.EnumDepositType;
+import com.wedogift.backend.jwt.JwtProvider;
+import com.wedogift.backend.services.CompaniesService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Number of SQL statements issued by each endpoint for a company with many employees.
+ * Authentication only reads the company principal, once per cache period, and no endpoint loads the whole list of employees.
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SqlStatementCountTest extends AbstractPostgresTest {
+
+    private static final int EMPLOYEES = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CompaniesService companiesService;
+    @Autowired
+    private JwtProvider jwtProvider;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String companyEmail;
+    private String token;
+    private UUID employeeId;
+
+    @BeforeEach
+    void setUp() {
+        companyEmail = "statements-" + UUID.randomUUID() + "@wedoostore.com";
+        companiesService.addCompany(AddCompanyDto.builder().name("Statements").email(companyEmail)
+                .password("secret").balance(1000.0).build());
+        for (int i = 0; i < EMPLOYEES; i++) {
+            companiesService.addEmployeeToCompany(companyEmail, AddEmployeeDto.builder().name("Employee " + i).build());
+        }
+        employeeId = companiesService.getCompanyEmplyees(companyEmail, 1, null).employees().get(0).id();
+        token = jwtProvider.issueToken(companyEmail, "ROLE_USER");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getEmployeeBalance() throws Exception {
+        //principal, company, employee, balance
+        assertStatements(MockMvcRequestBuilders.get("/api/v1/employees/{employeeId}/balance", employeeId), status().isOk(), 4);
+    }
+
+    @Test
+    void getCompany() throws Exception {
+        //principal, company, employees with their balances
+        assertStatements(MockMvcRequestBuilders.get("/api/v1/companies/me"), status().isOk(), 3);
+    }
+
+    @Test
+    void authenticatedRequestsReuseTheCachedPrincipal() throws Exception {
+        assertStatements(MockMvcRequestBuilders.get("/api/v1/companies/me"), status().isOk(), 3);
+        //company and employees only, the principal comes from the cache
+        assertStatements(MockMvcRequestBuilders.get("/api/v1/companies/me"), status().isOk(), 2);
+    }
+
+    @Test
+    void getCompanyEmployees() throws Exception {
+        //principal, company, page of employees with their balances
+        assertStatements(MockMvcRequestBuilders.get("/api/v1/employees").param("size", "20"), status().isOk(), 3);
+    }
+
+    @Test
+    void depositEmployeeBalance() throws Exception {
+        DepositBalanceDto depositBalanceDto = DepositBalanceDto.builder().depositDate(LocalDate.now())
+                .balance(10.0).enumDepositType(EnumDepositType.GIFTS).build();
+        //principal, company, employee, company debit, deposit insert, ledger entries (one JDBC batch)
+        assertStatements(MockMvcRequestBuilders.post("/api/v1/employees/{employeeId}/deposit", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(depositBalanceDto)), status().isNoContent(), 6);
+    }
+
+    @Test
+    void depositEmployeeBalance_ShouldNotLoadThePreviousDeposits() throws Exception {
+        DepositBalanceDto depositBalanceDto = DepositBalanceDto.builder().depositDate(LocalDate.now())
+                .balance(1.0).enumDepositType(EnumDepositType.MEALS).build();
+        for (int i = 0; i < 50; i++) {
+            companiesService.depositBalanceToEmployee(companyEmail, employeeId, depositBalanceDto);
+        }
+        //same statements as the first deposit, the employee's deposits are never read
+        assertStatements(MockMvcRequestBuilders.post("/api/v1/employees/{employeeId}/deposit", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(depositBalanceDto)), status().isNoContent(), 6);
+    }
+
+    private void assertStatements(MockHttpServletRequestBuilder request, ResultMatcher expectedStatus, long maxStatements) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(expectedStatus);
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= maxStatements, "expected at most " + maxStatements + " statements but was " + statements);
+    }
+}
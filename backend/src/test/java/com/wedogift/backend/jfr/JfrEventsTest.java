@@ -0,0 +1,173 @@
+package com.wedogift.backend.jfr;
+
+import com.wedogift.backend.dtos.BatchDepositDto;
+import com.wedogift.backend.dtos.BatchDepositItemDto;
+import com.wedogift.backend.dtos.DepositBalanceDto;
+import com.wedogift.backend.dtos.EnumDepositType;
+import com.wedogift.backend.entities.CompanyEntity;
+import com.wedogift.backend.entities.DepositEntity;
+import com.wedogift.backend.entities.EmployeeEntity;
+import com.wedogift.backend.jwt.JwtAuthenticationFilter;
+import com.wedogift.backend.jwt.JwtProvider;
+import com.wedogift.backend.mappers.CompaniesMapper;
+import com.wedogift.backend.mappers.EmployeesMapper;
+import com.wedogift.backend.metrics.DepositMetrics;
+import com.wedogift.backend.repos.CompaniesRepo;
+import com.wedogift.backend.repos.DepositsRepo;
+import com.wedogift.backend.repos.EmployeesRepo;
+import com.wedogift.backend.repos.LedgerRepo;
+import com.wedogift.backend.services.CompaniesServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JfrEventsTest {
+
+    @Mock
+    private CompaniesRepo companiesRepo;
+    @Mock
+    private EmployeesRepo employeesRepo;
+    @Mock
+    private LedgerRepo ledgerRepo;
+    @Mock
+    private DepositsRepo depositsRepo;
+    @Mock
+    private CompaniesMapper companiesMapper;
+    @Mock
+    private EmployeesMapper employeesMapper;
+    @Mock
+    private PasswordEncoder passwordEncoder;
+    @Mock
+    private DepositMetrics depositMetrics;
+    @InjectMocks
+    private CompaniesServiceImpl companiesService;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void depositAndBalance_ShouldEmitEvents() throws Exception {
+        String companyEmail = "company@wedoostore.com";
+        CompanyEntity company = CompanyEntity.builder().id(UUID.randomUUID()).email(companyEmail).build();
+        EmployeeEntity employee = EmployeeEntity.builder().id(UUID.randomUUID()).build();
+        when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(company));
+        when(employeesRepo.existsByIdAndCompany(employee.getId(), company)).thenReturn(true);
+        when(employeesRepo.findByIdAndCompany(employee.getId(), company)).thenReturn(Optional.of(employee));
+        when(companiesRepo.debitBalance(company.getId(), 5_000)).thenReturn(1);
+        when(depositsRepo.save(any(DepositEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        LedgerRepo.EmployeeBalance employeeBalance = mock(LedgerRepo.EmployeeBalance.class);
+        when(employeeBalance.getBalance()).thenReturn(5_000L);
+        when(employeeBalance.getRowsScanned()).thenReturn(3L);
+        when(ledgerRepo.findBalanceByEmployeeId(eq(employee.getId()), any(LocalDate.class))).thenReturn(employeeBalance);
+
+        Path file = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(DepositEvent.class);
+            recording.enable(BalanceEvent.class);
+            recording.start();
+            companiesService.depositBalanceToEmployee(companyEmail, employee.getId(), DepositBalanceDto.builder()
+                    .depositDate(LocalDate.now()).balance(50.0).enumDepositType(EnumDepositType.GIFTS).build());
+            companiesService.getEmployeeBalance(companyEmail, employee.getId());
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent deposit = events.stream().filter(e -> e.getEventType().getName().equals("com.wedogift.Deposit")).findFirst().orElseThrow();
+        assertEquals(company.getId().toString(), deposit.getString("companyId"));
+        assertEquals("GIFTS", deposit.getString("depositType"));
+        assertEquals(1, deposit.getInt("deposits"));
+        assertEquals(4, deposit.getInt("rowsTouched"));
+        assertTrue(deposit.getBoolean("succeeded"));
+
+        RecordedEvent balance = events.stream().filter(e -> e.getEventType().getName().equals("com.wedogift.Balance")).findFirst().orElseThrow();
+        assertEquals(employee.getId().toString(), balance.getString("employeeId"));
+        assertEquals(3, balance.getLong("depositsScanned"));
+        assertTrue(balance.getBoolean("succeeded"));
+    }
+
+    @Test
+    void batchDeposit_ShouldEmitOneEvent() throws Exception {
+        String companyEmail = "company@wedoostore.com";
+        CompanyEntity company = CompanyEntity.builder().id(UUID.randomUUID()).email(companyEmail).build();
+        EmployeeEntity john = EmployeeEntity.builder().id(UUID.randomUUID()).build();
+        EmployeeEntity jessica = EmployeeEntity.builder().id(UUID.randomUUID()).build();
+        when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(company));
+        when(employeesRepo.findByCompanyAndIdIn(eq(company), any())).thenReturn(List.of(john, jessica));
+        when(companiesRepo.debitBalance(company.getId(), 8_000)).thenReturn(1);
+
+        Path file = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(DepositEvent.class);
+            recording.start();
+            companiesService.depositBalanceToEmployees(companyEmail, BatchDepositDto.builder().deposits(List.of(
+                    BatchDepositItemDto.builder().employeeId(john.getId()).depositDate(LocalDate.now())
+                            .balance(50.0).enumDepositType(EnumDepositType.GIFTS).build(),
+                    BatchDepositItemDto.builder().employeeId(jessica.getId()).depositDate(LocalDate.now())
+                            .balance(30.0).enumDepositType(EnumDepositType.MEALS).build())).build());
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> deposits = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.wedogift.Deposit")).toList();
+        assertEquals(1, deposits.size());
+        assertEquals(company.getId().toString(), deposits.get(0).getString("companyId"));
+        assertEquals(2, deposits.get(0).getInt("deposits"));
+        //company debit, 2 deposits, then 1 debit and 2 credits in the ledger
+        assertEquals(6, deposits.get(0).getInt("rowsTouched"));
+        assertTrue(deposits.get(0).getBoolean("succeeded"));
+    }
+
+    @Test
+    void authentication_WhenTheCompanyLookupFails_ShouldEmitARejectedEvent() throws Exception {
+        JwtProvider jwtProvider = new JwtProvider("mySecretKeymySecretKeymySecretKeymySecretKeymySecretKeymySecretKeymySecretKey", 3_600_000, 100);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtProvider, companiesService, new SimpleMeterRegistry());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + jwtProvider.issueToken("removed@wedoostore.com"));
+        when(companiesRepo.findPrincipalByEmail("removed@wedoostore.com")).thenReturn(Optional.empty());
+
+        Path file = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(AuthenticationEvent.class);
+            recording.start();
+            assertThrows(UsernameNotFoundException.class,
+                    () -> filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain()));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> authentications = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.wedogift.Authentication")).toList();
+        assertEquals(1, authentications.size());
+        assertFalse(authentications.get(0).getBoolean("authenticated"));
+    }
+}
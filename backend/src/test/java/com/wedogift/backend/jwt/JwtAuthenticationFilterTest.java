@@ -0,0 +1,50 @@
+package com.wedogift.backend.jwt;
+
+import com.wedogift.backend.services.CompaniesService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "mySecretKeymySecretKeymySecretKeymySecretKeymySecretKeymySecretKeymySecretKey";
+
+    private final JwtProvider jwtProvider = new JwtProvider(SECRET, 3_600_000, 100);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private CompaniesService companiesService;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_WhenTheCompanyLookupFails_ShouldRecordARejection() {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtProvider, companiesService, meterRegistry);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + jwtProvider.issueToken("removed@wedoostore.com"));
+        when(companiesService.loadUserByUsername("removed@wedoostore.com"))
+                .thenThrow(new UsernameNotFoundException("removed@wedoostore.com"));
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain()));
+
+        assertEquals(1, meterRegistry.get("wedoostore.auth.filter").tag("result", "rejected").timer().count());
+        assertEquals(0, meterRegistry.get("wedoostore.auth.filter").tag("result", "authenticated").timer().count());
+    }
+}
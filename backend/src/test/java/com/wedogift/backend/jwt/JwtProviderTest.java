@@ -0,0 +1,52 @@
+package com.wedogift.backend.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtProviderTest {
+
+    private static final String SECRET = "mySecretKeymySecretKeymySecretKeymySecretKeymySecretKeymySecretKeymySecretKey";
+
+    private final JwtProvider jwtProvider = new JwtProvider(SECRET, 3_600_000, 100);
+
+    @Test
+    void verifyReturnsTheClaimsOfAValidToken() {
+        String token = jwtProvider.issueToken("tesla@wedoostore.com", "ROLE_USER");
+
+        Optional<Claims> claims = jwtProvider.verify(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("tesla@wedoostore.com", claims.get().getSubject());
+        //second call is served from the cache
+        assertEquals(claims, jwtProvider.verify(token));
+    }
+
+    @Test
+    void verifyRejectsATamperedToken() {
+        String token = jwtProvider.issueToken("tesla@wedoostore.com");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertTrue(jwtProvider.verify(tampered).isEmpty());
+        assertTrue(jwtProvider.verify("not-a-jwt").isEmpty());
+    }
+
+    @Test
+    void verifyRejectsAnExpiredToken() {
+        JwtProvider expiredTokensProvider = new JwtProvider(SECRET, -1_000, 100);
+        String token = expiredTokensProvider.issueToken("tesla@wedoostore.com");
+
+        assertTrue(expiredTokensProvider.verify(token).isEmpty());
+    }
+
+    @Test
+    void verifyRejectsATokenSignedWithAnotherKey() {
+        JwtProvider otherProvider = new JwtProvider(SECRET.toUpperCase(), 3_600_000, 100);
+        String token = otherProvider.issueToken("tesla@wedoostore.com");
+
+        assertTrue(jwtProvider.verify(token).isEmpty());
+    }
+}
@@ -0,0 +1,135 @@
+package com.wedogift.backend.loadtest;
+
+import com.wedogift.backend.AbstractPostgresTest;
+import com.wedogift.backend.dtos.*;
+import com.wedogift.backend.entities.EmployeeEntity;
+import com.wedogift.backend.repos.CompaniesRepo;
+import com.wedogift.backend.repos.EmployeesRepo;
+import com.wedogift.backend.services.CompaniesService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of the deposits of one company, sent one by one to the single deposit service and grouped in batches of
+ * loadtest.batch.size deposits to the batch deposit service.
+ * <p>
+ * Excluded from the default build, run it with {@code mvn -Ploadtest test}. The workload is set with the system properties
+ * loadtest.concurrency, loadtest.deposits, loadtest.employees-per-company and loadtest.batch.size.
+ * The report is logged and written to target/batch-deposit-report.csv
+ */
+@Slf4j
+@Tag("load")
+class BatchDepositLoadTest extends AbstractPostgresTest {
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+    private final int deposits = Integer.getInteger("loadtest.deposits", 20_000);
+    private final int employeesPerCompany = Integer.getInteger("loadtest.employees-per-company", 1_000);
+    private final int batchSize = Integer.getInteger("loadtest.batch.size", 500);
+
+    @Autowired
+    private CompaniesService companiesService;
+    @Autowired
+    private CompaniesRepo companiesRepo;
+    @Autowired
+    private EmployeesRepo employeesRepo;
+
+    @Test
+    void sameCompanyDeposits_SingleVersusBatch() throws Exception {
+        StringBuilder csv = new StringBuilder("mode,deposits,batch_size,clients,throughput_per_s\n");
+        for (boolean batch : new boolean[]{false, true}) {
+            String mode = batch ? "batch" : "single";
+            String companyEmail = "batch-" + mode + "-" + UUID.randomUUID() + "@wedoostore.com";
+            List<UUID> employeeIds = seed(companyEmail);
+
+            long elapsedNanos = batch ? run(batches(companyEmail, employeeIds)) : run(singles(companyEmail, employeeIds));
+
+            double throughput = deposits / (elapsedNanos / 1e9);
+            String line = String.format(Locale.ROOT, "%s,%d,%d,%d,%.1f", mode, deposits, batch ? batchSize : 1, concurrency, throughput);
+            log.info("{} {}", "[APILOG]", line);
+            csv.append(line).append('\n');
+            //every deposit of 1.00 debited the company exactly once
+            assertEquals(deposits * 100L, 100_000_000L - companiesRepo.findByEmail(companyEmail).orElseThrow().getBalance());
+        }
+        Path reportFile = Path.of("target", "batch-deposit-report.csv");
+        Files.createDirectories(reportFile.getParent());
+        Files.writeString(reportFile, csv);
+    }
+
+    private List<UUID> seed(String companyEmail) {
+        UUID companyId = companiesService.addCompany(AddCompanyDto.builder().name("Batch").email(companyEmail)
+                .password("secret").balance(1_000_000.0).build());
+        List<EmployeeEntity> employees = new ArrayList<>(employeesPerCompany);
+        for (int e = 0; e < employeesPerCompany; e++) {
+            employees.add(EmployeeEntity.builder().id(UUID.randomUUID()).name("Employee " + e).build());
+        }
+        employeesRepo.insertAll(companyId, employees);
+        return employees.stream().map(EmployeeEntity::getId).toList();
+    }
+
+    private List<Callable<Object>> singles(String companyEmail, List<UUID> employeeIds) {
+        DepositBalanceDto deposit = DepositBalanceDto.builder().depositDate(LocalDate.now())
+                .balance(1.0).enumDepositType(EnumDepositType.GIFTS).build();
+        List<Callable<Object>> tasks = new ArrayList<>(deposits);
+        for (int i = 0; i < deposits; i++) {
+            UUID employeeId = employeeIds.get(i % employeeIds.size());
+            tasks.add(() -> {
+                companiesService.depositBalanceToEmployee(companyEmail, employeeId, deposit);
+                return null;
+            });
+        }
+        return tasks;
+    }
+
+    private List<Callable<Object>> batches(String companyEmail, List<UUID> employeeIds) {
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int from = 0; from < deposits; from += batchSize) {
+            List<BatchDepositItemDto> items = new ArrayList<>(batchSize);
+            for (int i = from; i < Math.min(from + batchSize, deposits); i++) {
+                items.add(BatchDepositItemDto.builder().employeeId(employeeIds.get(i % employeeIds.size()))
+                        .depositDate(LocalDate.now()).balance(1.0).enumDepositType(EnumDepositType.GIFTS).build());
+            }
+            BatchDepositDto batch = BatchDepositDto.builder().deposits(items).build();
+            tasks.add(() -> companiesService.depositBalanceToEmployees(companyEmail, batch));
+        }
+        return tasks;
+    }
+
+    private long run(List<Callable<Object>> tasks) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>(tasks.size());
+            for (Callable<Object> task : tasks) {
+                results.add(clients.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+            return System.nanoTime() - startNanos;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+}
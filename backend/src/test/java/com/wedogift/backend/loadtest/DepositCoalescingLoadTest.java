@@ -0,0 +1,117 @@
+package com.wedogift.backend.loadtest;
+
+import com.wedogift.backend.AbstractPostgresTest;
+import com.wedogift.backend.dtos.*;
+import com.wedogift.backend.entities.EmployeeEntity;
+import com.wedogift.backend.metrics.DepositMetrics;
+import com.wedogift.backend.repos.CompaniesRepo;
+import com.wedogift.backend.repos.EmployeesRepo;
+import com.wedogift.backend.services.CompaniesService;
+import com.wedogift.backend.services.DepositCoalescer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of concurrent single deposits of one company, through the row lock of the company and through the
+ * per-company coalescing writer of the {@link DepositCoalescer}.
+ * <p>
+ * Excluded from the default build, run it with {@code mvn -Ploadtest test}. The workload is set with the system properties
+ * loadtest.concurrency, loadtest.deposits, loadtest.employees-per-company and loadtest.coalescing.max-batch.
+ * The report is logged and written to target/deposit-coalescing-report.csv
+ */
+@Slf4j
+@Tag("load")
+class DepositCoalescingLoadTest extends AbstractPostgresTest {
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+    private final int deposits = Integer.getInteger("loadtest.deposits", 5_000);
+    private final int employeesPerCompany = Integer.getInteger("loadtest.employees-per-company", 200);
+    private final int maxBatch = Integer.getInteger("loadtest.coalescing.max-batch", 500);
+
+    @Autowired
+    private CompaniesService companiesService;
+    @Autowired
+    private CompaniesRepo companiesRepo;
+    @Autowired
+    private EmployeesRepo employeesRepo;
+    @Autowired
+    private DepositMetrics depositMetrics;
+
+    @Test
+    void sameCompanyDeposits_RowLockVersusCoalescing() throws Exception {
+        StringBuilder csv = new StringBuilder("mode,deposits,clients,throughput_per_s\n");
+        for (boolean coalescing : new boolean[]{false, true}) {
+            DepositCoalescer depositCoalescer = new DepositCoalescer(companiesService, depositMetrics, coalescing, maxBatch, 4, Duration.ofMinutes(1));
+            String mode = coalescing ? "coalescing" : "row-lock";
+            String companyEmail = "coalescing-" + mode + "-" + UUID.randomUUID() + "@wedoostore.com";
+            List<UUID> employeeIds = seed(companyEmail);
+
+            long elapsedNanos = run(depositCoalescer, companyEmail, employeeIds);
+
+            double throughput = deposits / (elapsedNanos / 1e9);
+            String line = String.format(Locale.ROOT, "%s,%d,%d,%.1f", mode, deposits, concurrency, throughput);
+            log.info("{} {}", "[APILOG]", line);
+            csv.append(line).append('\n');
+            //every deposit of 1.00 debited the company exactly once
+            assertEquals(deposits * 100L, 100_000_000L - companiesRepo.findByEmail(companyEmail).orElseThrow().getBalance());
+        }
+        Path reportFile = Path.of("target", "deposit-coalescing-report.csv");
+        Files.createDirectories(reportFile.getParent());
+        Files.writeString(reportFile, csv);
+    }
+
+    private List<UUID> seed(String companyEmail) {
+        UUID companyId = companiesService.addCompany(AddCompanyDto.builder().name("Coalescing").email(companyEmail)
+                .password("secret").balance(1_000_000.0).build());
+        List<EmployeeEntity> employees = new ArrayList<>(employeesPerCompany);
+        for (int e = 0; e < employeesPerCompany; e++) {
+            employees.add(EmployeeEntity.builder().id(UUID.randomUUID()).name("Employee " + e).build());
+        }
+        employeesRepo.insertAll(companyId, employees);
+        return employees.stream().map(EmployeeEntity::getId).toList();
+    }
+
+    private long run(DepositCoalescer depositCoalescer, String companyEmail, List<UUID> employeeIds) throws Exception {
+        DepositBalanceDto deposit = DepositBalanceDto.builder().depositDate(LocalDate.now())
+                .balance(1.0).enumDepositType(EnumDepositType.GIFTS).build();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < deposits; i++) {
+                results.add(clients.submit(() -> {
+                    start.await();
+                    UUID employeeId = employeeIds.get(ThreadLocalRandom.current().nextInt(employeeIds.size()));
+                    depositCoalescer.deposit(companyEmail, employeeId, deposit);
+                    return null;
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+            return System.nanoTime() - startNanos;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+}
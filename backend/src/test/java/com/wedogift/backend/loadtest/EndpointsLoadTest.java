@@ -0,0 +1,295 @@
+package com.wedogift.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wedogift.backend.dtos.*;
+import com.wedogift.backend.entities.EmployeeEntity;
+import com.wedogift.backend.jwt.JwtProvider;
+import com.wedogift.backend.repos.EmployeesRepo;
+import com.wedogift.backend.services.CompaniesService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Drives a mixed workload through the whole stack (security filter, controllers, services, JPA) over HTTP
+ * and reports the throughput and the latency percentiles of each endpoint.
+ * <p>
+ * Excluded from the default build, run it with {@code mvn -Ploadtest test}. The workload is set with system properties:
+ * <ul>
+ *     <li>loadtest.companies, loadtest.employees-per-company, loadtest.deposits-per-employee: the seeded data</li>
+ *     <li>loadtest.concurrency: the number of concurrent clients</li>
+ *     <li>loadtest.requests, loadtest.warmup-requests: the number of measured and warmup requests</li>
+ *     <li>loadtest.mix: the weight of each endpoint, e.g. BALANCE=60,DEPOSIT=20,LISTING=20</li>
+ *     <li>loadtest.datasource.url, loadtest.datasource.username, loadtest.datasource.password: a local database,
+ *     a PostgreSQL container is started when no url is given</li>
+ * </ul>
+ * The report is logged and written to target/load-test-report.csv
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EndpointsLoadTest {
+
+    private static final String DATASOURCE_URL = System.getProperty("loadtest.datasource.url");
+    private static PostgreSQLContainer<?> postgres;
+
+    private final int companies = Integer.getInteger("loadtest.companies", 5);
+    private final int employeesPerCompany = Integer.getInteger("loadtest.employees-per-company", 200);
+    private final int depositsPerEmployee = Integer.getInteger("loadtest.deposits-per-employee", 5);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+    private final int requests = Integer.getInteger("loadtest.requests", 10_000);
+    private final int warmupRequests = Integer.getInteger("loadtest.warmup-requests", 1_000);
+    private final Map<Endpoint, Integer> mix = parseMix(System.getProperty("loadtest.mix", "BALANCE=60,DEPOSIT=20,LISTING=20"));
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private CompaniesService companiesService;
+    @Autowired
+    private EmployeesRepo employeesRepo;
+    @Autowired
+    private JwtProvider jwtProvider;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final List<SeededCompany> seededCompanies = new ArrayList<>();
+
+    @BeforeAll
+    static void requireDatabase() {
+        assumeTrue(DATASOURCE_URL != null || DockerClientFactory.instance().isDockerAvailable(),
+                "no loadtest.datasource.url and docker is not available");
+    }
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        if (DATASOURCE_URL != null) {
+            registry.add("spring.datasource.url", () -> DATASOURCE_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("loadtest.datasource.username", "wedoostore"));
+            registry.add("spring.datasource.password", () -> System.getProperty("loadtest.datasource.password", "wedoostore"));
+            return;
+        }
+        postgres = new PostgreSQLContainer<>("postgres:14.1");
+        postgres.start();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        seed();
+
+        run(warmupRequests);
+        Map<Endpoint, List<Long>> latencies = new EnumMap<>(Endpoint.class);
+        long start = System.nanoTime();
+        int errors = run(requests, latencies);
+        long elapsedNanos = System.nanoTime() - start;
+
+        report(latencies, elapsedNanos);
+        assertEquals(0, errors, "requests answered with an unexpected status");
+    }
+
+    private void seed() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        for (int c = 0; c < companies; c++) {
+            String email = "load-" + runId + "-" + c + "@wedoostore.com";
+            UUID companyId = companiesService.addCompany(AddCompanyDto.builder().name("Load " + c).email(email)
+                    .password("secret").balance(1_000_000_000.0).build());
+            List<EmployeeEntity> employees = new ArrayList<>(employeesPerCompany);
+            for (int e = 0; e < employeesPerCompany; e++) {
+                employees.add(EmployeeEntity.builder().id(UUID.randomUUID()).name("Employee " + e).build());
+            }
+            employeesRepo.insertAll(companyId, employees);
+            List<UUID> employeeIds = employees.stream().map(EmployeeEntity::getId).toList();
+            for (int d = 0; d < depositsPerEmployee; d++) {
+                EnumDepositType depositType = EnumDepositType.values()[d % EnumDepositType.values().length];
+                companiesService.depositBalanceToEmployees(email, BatchDepositDto.builder()
+                        .deposits(employeeIds.stream().map(employeeId -> BatchDepositItemDto.builder().employeeId(employeeId)
+                                .depositDate(today.minusDays(d)).balance(10.0).enumDepositType(depositType).build()).toList())
+                        .build());
+            }
+            seededCompanies.add(new SeededCompany(jwtProvider.issueToken(email, "ROLE_USER"), employeeIds));
+        }
+        log.info("{} seeded {} companies, {} employees and {} deposits in {} ms", "[APILOG]", companies,
+                companies * employeesPerCompany, companies * employeesPerCompany * depositsPerEmployee,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void run(int count) throws Exception {
+        run(count, new EnumMap<>(Endpoint.class));
+    }
+
+    /**
+     * Sends count requests from concurrency clients and records the latency of each one in nanoseconds
+     *
+     * @return the number of requests answered with an unexpected status
+     */
+    private int run(int count, Map<Endpoint, List<Long>> latencies) throws Exception {
+        AtomicInteger remaining = new AtomicInteger(count);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<ClientResult>> results = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                results.add(clients.submit(() -> client(remaining)));
+            }
+            int errors = 0;
+            for (Future<ClientResult> result : results) {
+                ClientResult clientResult = result.get();
+                clientResult.latencies().forEach((endpoint, values) ->
+                        latencies.computeIfAbsent(endpoint, e -> new ArrayList<>()).addAll(values));
+                errors += clientResult.errors();
+            }
+            return errors;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private ClientResult client(AtomicInteger remaining) throws IOException, InterruptedException {
+        Map<Endpoint, List<Long>> latencies = new EnumMap<>(Endpoint.class);
+        int errors = 0;
+        while (remaining.getAndDecrement() > 0) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            SeededCompany company = seededCompanies.get(random.nextInt(seededCompanies.size()));
+            UUID employeeId = company.employeeIds().get(random.nextInt(company.employeeIds().size()));
+            Endpoint endpoint = pickEndpoint(random);
+
+            HttpRequest request = endpoint.request(this, employeeId)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + company.token())
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            latencies.computeIfAbsent(endpoint, e -> new ArrayList<>()).add(System.nanoTime() - start);
+            if (response.statusCode() != endpoint.expectedStatus) {
+                errors++;
+            }
+        }
+        return new ClientResult(latencies, errors);
+    }
+
+    private Endpoint pickEndpoint(ThreadLocalRandom random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = random.nextInt(total);
+        for (Map.Entry<Endpoint, Integer> weight : mix.entrySet()) {
+            pick -= weight.getValue();
+            if (pick < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("empty workload mix");
+    }
+
+    private void report(Map<Endpoint, List<Long>> latencies, long elapsedNanos) throws IOException {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder csv = new StringBuilder("endpoint,requests,throughput_per_s,p50_ms,p99_ms,p999_ms,max_ms\n");
+        log.info("{} {} requests, {} clients, {} req/s", "[APILOG]", requests, concurrency, Math.round(requests / seconds));
+        latencies.forEach((endpoint, values) -> {
+            long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+            String line = String.format(Locale.ROOT, "%s,%d,%.1f,%.2f,%.2f,%.2f,%.2f", endpoint, sorted.length,
+                    sorted.length / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), sorted[sorted.length - 1] / 1e6);
+            log.info("{} {}", "[APILOG]", line);
+            csv.append(line).append('\n');
+        });
+        Path reportFile = Path.of("target", "load-test-report.csv");
+        Files.createDirectories(reportFile.getParent());
+        Files.writeString(reportFile, csv);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String weight : mix.split(",")) {
+            String[] parts = weight.split("=");
+            weights.put(Endpoint.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private String depositBody() {
+        try {
+            return objectMapper.writeValueAsString(DepositBalanceDto.builder().depositDate(LocalDate.now())
+                    .balance(1.0).enumDepositType(EnumDepositType.GIFTS).build());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    enum Endpoint {
+        BALANCE(200) {
+            @Override
+            HttpRequest.Builder request(EndpointsLoadTest test, UUID employeeId) {
+                return HttpRequest.newBuilder(test.uri("/api/v1/employees/" + employeeId + "/balance")).GET();
+            }
+        },
+        DEPOSIT(204) {
+            @Override
+            HttpRequest.Builder request(EndpointsLoadTest test, UUID employeeId) {
+                return HttpRequest.newBuilder(test.uri("/api/v1/employees/" + employeeId + "/deposit"))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .POST(HttpRequest.BodyPublishers.ofString(test.depositBody()));
+            }
+        },
+        LISTING(200) {
+            @Override
+            HttpRequest.Builder request(EndpointsLoadTest test, UUID employeeId) {
+                return HttpRequest.newBuilder(test.uri("/api/v1/employees?size=50")).GET();
+            }
+        };
+
+        private final int expectedStatus;
+
+        Endpoint(int expectedStatus) {
+            this.expectedStatus = expectedStatus;
+        }
+
+        abstract HttpRequest.Builder request(EndpointsLoadTest test, UUID employeeId);
+    }
+
+    private record SeededCompany(String token, List<UUID> employeeIds) {
+    }
+
+    private record ClientResult(Map<Endpoint, List<Long>> latencies, int errors) {
+    }
+}
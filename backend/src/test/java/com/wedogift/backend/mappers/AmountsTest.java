@@ -0,0 +1,33 @@
+package com.wedogift.backend.mappers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AmountsTest {
+
+    @Test
+    void toCents_ShouldNotDriftOnDecimalAmounts() {
+        assertEquals(5_010, Amounts.toCents(50.1));
+        assertEquals(30, Amounts.toCents(0.1 + 0.2));
+        //half even rounding of sub-cent amounts
+        assertEquals(0, Amounts.toCents(0.005));
+        assertEquals(2, Amounts.toCents(0.015));
+    }
+
+    @Test
+    void toAmount_ShouldReturnTheClosestDouble() {
+        assertEquals(50.1, Amounts.toAmount(5_010));
+        assertEquals(0.3, Amounts.toAmount(30));
+        assertEquals(0.0, Amounts.toAmount(0));
+    }
+
+    @Test
+    void summingCents_ShouldBeExact() {
+        long cents = 0;
+        for (int i = 0; i < 10; i++) {
+            cents += Amounts.toCents(0.1);
+        }
+        assertEquals(1.0, Amounts.toAmount(cents));
+    }
+}
@@ -0,0 +1,45 @@
+package com.wedogift.backend.metrics;
+
+import com.wedogift.backend.dtos.EnumDepositType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DepositMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DepositMetrics depositMetrics = new DepositMetrics(meterRegistry);
+
+    @Test
+    void recordDeposit_ShouldSumAmountsByDepositType() {
+        depositMetrics.recordDeposit(EnumDepositType.GIFTS, 5_000);
+        depositMetrics.recordDeposit(EnumDepositType.GIFTS, 2_050);
+        depositMetrics.recordDeposit(EnumDepositType.MEALS, 1_000);
+
+        DistributionSummary gifts = meterRegistry.get("wedoostore.deposits.amount").tag("type", "GIFTS").summary();
+        DistributionSummary meals = meterRegistry.get("wedoostore.deposits.amount").tag("type", "MEALS").summary();
+        assertEquals(2, gifts.count());
+        assertEquals(70.5, gifts.totalAmount());
+        assertEquals(1, meals.count());
+        assertEquals(10.0, meals.totalAmount());
+    }
+
+    @Test
+    void recordNotEnoughBalance_ShouldCountRejectedDeposits() {
+        depositMetrics.recordNotEnoughBalance();
+
+        assertEquals(1.0, meterRegistry.get("wedoostore.deposits.rejected").counter().count());
+    }
+
+    @Test
+    void recordCoalescedBatch_ShouldRecordTheBatchSizes() {
+        depositMetrics.recordCoalescedBatch(1);
+        depositMetrics.recordCoalescedBatch(9);
+
+        DistributionSummary batches = meterRegistry.get("wedoostore.deposits.coalesced").summary();
+        assertEquals(2, batches.count());
+        assertEquals(9.0, batches.max());
+    }
+}
@@ -0,0 +1,93 @@
+package com.wedogift.backend.repos;
+
+import com.wedogift.backend.AbstractPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the hot queries can be answered from the indexes created by the migrations.
+ * Sequential scans are disabled so that the plans don't depend on the size of the test tables.
+ */
+class IndexUsageTest extends AbstractPostgresTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void employeesOfACompany_ShouldUseCompanyIndex() {
+        assertUsesIndex("idx_employees_company_id", """
+                select e.id, e.name from employees e
+                where e.company_id = '00000000-0000-0000-0000-000000000001'::uuid and e.id > '00000000-0000-0000-0000-000000000001'::uuid
+                order by e.id limit 101
+                """);
+    }
+
+    @Test
+    void employeeOfACompany_ShouldUseAnIndex() {
+        assertUsesIndex("employees_pkey", """
+                select e.id from employees e
+                where e.id = '00000000-0000-0000-0000-000000000001'::uuid and e.company_id = '00000000-0000-0000-0000-000000000001'::uuid
+                """);
+    }
+
+    @Test
+    void ledgerTailOfAnEmployee_ShouldBeAnIndexOnlyScan() {
+        assertUsesIndex("Index Only Scan using idx_balance_ledger_employee_id", """
+                select coalesce(sum(l.amount), 0) from balance_ledger l
+                where l.employee_id = '00000000-0000-0000-0000-000000000001'::uuid and l.xact_id >= 1000
+                """);
+    }
+
+    @Test
+    void employeeBalanceSnapshot_ShouldUseItsPrimaryKey() {
+        assertUsesIndex("employee_balance_snapshots_pkey", """
+                select s.balance, s.xact_id from employee_balance_snapshots s
+                where s.employee_id = '00000000-0000-0000-0000-000000000001'::uuid
+                """);
+    }
+
+    @Test
+    void unsweptExpiredDepositsOfAnEmployee_ShouldBeAnIndexOnlyScan() {
+        assertUsesIndex("Index Only Scan using idx_deposits_employee_id", """
+                select coalesce(sum(d.balance), 0) from deposits d
+                where d.employee_id = '00000000-0000-0000-0000-000000000001'::uuid and not d.expired and d.expires_on < current_date
+                """);
+    }
+
+    @Test
+    void expiringDeposits_ShouldUseExpiryIndex() {
+        assertUsesIndex("idx_deposits_expires_on", """
+                select d.id, d.employee_id, d.deposit_type, d.balance, d.expires_on from deposits d
+                where d.expired = false
+                  and d.expires_on >= date '2020-01-01' and d.expires_on < current_date
+                  and (d.expires_on > date '2020-01-01' or (d.expires_on = date '2020-01-01' and d.id > '00000000-0000-0000-0000-000000000001'::uuid))
+                order by d.expires_on, d.id limit 1000
+                """);
+    }
+
+    private void assertUsesIndex(String index, String query) {
+        List<String> plan = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set enable_seqscan = off");
+                List<String> lines = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery("explain " + query)) {
+                    while (resultSet.next()) {
+                        lines.add(resultSet.getString(1));
+                    }
+                }
+                statement.execute("reset enable_seqscan");
+                return lines;
+            }
+        });
+        assertTrue(plan.stream().anyMatch(line -> line.contains(index)), "expected " + index + " in plan:\n" + String.join("\n", plan));
+    }
+}
@@ -0,0 +1,74 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.AbstractPostgresTest;
+import com.wedogift.backend.dtos.*;
+import com.wedogift.backend.repos.CompaniesRepo;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class BatchDepositTest extends AbstractPostgresTest {
+
+    private static final int EMPLOYEES = 500;
+
+    @Autowired
+    private CompaniesService companiesService;
+    @Autowired
+    private CompaniesRepo companiesRepo;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void batchDeposit_ShouldCreditEveryEmployeeWithAFixedNumberOfStatements() {
+        //Given
+        String companyEmail = "payroll@wedoostore.com";
+        companiesService.addCompany(AddCompanyDto.builder().name("Payroll").email(companyEmail)
+                .password("secret").balance(10_000.0).build());
+        for (int i = 0; i < EMPLOYEES; i++) {
+            companiesService.addEmployeeToCompany(companyEmail, AddEmployeeDto.builder().name("Employee " + i).build());
+        }
+        List<UUID> employeeIds = companiesService.getCompanyEmplyees(companyEmail, EMPLOYEES, null).employees().stream().map(DisplayEmployeeDto::id).toList();
+        LocalDate today = LocalDate.now();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        //When
+        statistics.clear();
+        for (UUID employeeId : employeeIds) {
+            companiesService.depositBalanceToEmployee(companyEmail, employeeId, DepositBalanceDto.builder()
+                    .depositDate(today).balance(5.0).enumDepositType(EnumDepositType.MEALS).build());
+        }
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<BatchDepositResultDto> results = companiesService.depositBalanceToEmployees(companyEmail, BatchDepositDto.builder()
+                .deposits(employeeIds.stream().map(employeeId -> BatchDepositItemDto.builder().employeeId(employeeId)
+                        .depositDate(today).balance(5.0).enumDepositType(EnumDepositType.MEALS).build()).toList())
+                .build());
+        long batchStatements = statistics.getPrepareStatementCount();
+
+        //Then
+        log.info("{} deposits: single path {} statements, batch path {} statements", EMPLOYEES, singleStatements, batchStatements);
+        assertTrue(results.stream().allMatch(result -> result.status() == EnumDepositStatus.DEPOSITED));
+        assertEquals(1_000_000 - 2 * 500 * EMPLOYEES, companiesRepo.findByEmail(companyEmail).orElseThrow().getBalance());
+        assertEquals(10.0, companiesService.getEmployeeBalance(companyEmail, employeeIds.get(0)).balance());
+        assertTrue(companiesService.getCompanyEmplyees(companyEmail, EMPLOYEES, null).employees().stream()
+                .allMatch(employee -> employee.balance() == 10.0));
+        assertTrue(companiesService.getCompany(companyEmail).users().stream()
+                .allMatch(employee -> employee.balance() == 10.0));
+        //company, employees, one debit and one batch of deposits, whatever the number of employees (the ledger is written by JDBC)
+        assertTrue(batchStatements <= 5, "batch path statements: " + batchStatements);
+        assertTrue(singleStatements >= EMPLOYEES, "single path statements: " + singleStatements);
+    }
+}
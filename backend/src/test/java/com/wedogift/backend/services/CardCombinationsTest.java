@@ -0,0 +1,130 @@
+package com.wedogift.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardCombinationsTest {
+
+    // the stock of the former calculator server
+    private final CardCombinations combinations = CardCombinations.of(
+            Map.of(20, 2, 22, 1, 25, 1, 26, 1, 35, 2, 45, 1), 1000);
+
+    @Test
+    void equalAmount_ShouldBeItsOwnFloorAndCeil() {
+        assertEquals(OptionalInt.of(42), combinations.floor(42));
+        assertEquals(OptionalInt.of(42), combinations.ceil(42));
+        assertEquals(List.of(22, 20), combinations.cards(42));
+        assertEquals(List.of(35, 35), combinations.cards(70));
+    }
+
+    @Test
+    void unreachableAmount_ShouldReturnTheClosestSums() {
+        assertEquals(OptionalInt.of(22), combinations.floor(23));
+        assertEquals(OptionalInt.of(25), combinations.ceil(23));
+        assertEquals(List.of(25), combinations.cards(25));
+    }
+
+    @Test
+    void amountBelowTheSmallestCard_ShouldHaveNoFloor() {
+        assertEquals(OptionalInt.empty(), combinations.floor(5));
+        assertEquals(OptionalInt.of(20), combinations.ceil(5));
+        assertEquals(OptionalInt.of(20), combinations.ceil(0));
+    }
+
+    @Test
+    void amountAboveTheStock_ShouldHaveNoCeil() {
+        assertEquals(228, combinations.maxSum());
+        assertEquals(OptionalInt.of(228), combinations.floor(500));
+        assertEquals(OptionalInt.empty(), combinations.ceil(500));
+        assertEquals(List.of(45, 35, 35, 26, 25, 22, 20, 20), combinations.cards(228));
+    }
+
+    @Test
+    void emptyStock_ShouldHaveNoCombination() {
+        CardCombinations empty = CardCombinations.of(Map.of(), 1000);
+
+        assertEquals(OptionalInt.empty(), empty.floor(10));
+        assertEquals(OptionalInt.empty(), empty.ceil(10));
+        assertThrows(IllegalArgumentException.class, () -> empty.cards(10));
+    }
+
+    @Test
+    void combinations_ShouldUseTheFewestCardsInStock() {
+        Random random = new Random(42);
+        for (int run = 0; run < 50; run++) {
+            Map<Integer, Integer> stock = new HashMap<>();
+            for (int i = 0; i < 4; i++) {
+                stock.put(1 + random.nextInt(30), random.nextInt(4));
+            }
+            CardCombinations randomCombinations = CardCombinations.of(stock, 200);
+            int[] fewestCards = fewestCards(stock, 200);
+
+            for (int amount = 1; amount <= 200; amount++) {
+                boolean reachable = fewestCards[amount] != Integer.MAX_VALUE;
+                assertEquals(reachable, randomCombinations.floor(amount).orElse(-1) == amount, stock + " " + amount);
+                if (reachable) {
+                    List<Integer> cards = randomCombinations.cards(amount);
+                    assertEquals(amount, cards.stream().mapToInt(Integer::intValue).sum());
+                    assertEquals(fewestCards[amount], cards.size(), stock + " " + amount);
+                    cards.forEach(card -> assertTrue(Collections.frequency(cards, card) <= stock.get(card)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void withQuantity_ShouldLeaveThePreviousSnapshotUnchanged() {
+        CardCombinations sold = combinations.withQuantity(45, 0);
+
+        assertEquals(List.of(25, 20), sold.cards(45));
+        assertEquals(183, sold.maxSum());
+        assertEquals(0, sold.quantity(45));
+        assertEquals(List.of(45), combinations.cards(45));
+        assertEquals(228, combinations.maxSum());
+        assertEquals(1, combinations.quantity(45));
+    }
+
+    @Test
+    void withQuantity_ShouldMatchTheCombinationsOfTheNewStock() {
+        Random random = new Random(7);
+        Map<Integer, Integer> stock = new HashMap<>(Map.of(5, 3, 12, 2, 20, 1));
+        CardCombinations updated = CardCombinations.of(stock, 200);
+        for (int change = 0; change < 100; change++) {
+            int value = 1 + random.nextInt(30);
+            int quantity = random.nextInt(6);
+            stock.put(value, quantity);
+            updated = updated.withQuantity(value, quantity);
+
+            int[] fewestCards = fewestCards(stock, 200);
+            for (int amount = 1; amount <= 200; amount++) {
+                boolean reachable = fewestCards[amount] != Integer.MAX_VALUE;
+                assertEquals(reachable, updated.floor(amount).orElse(-1) == amount, stock + " " + amount);
+                if (reachable) {
+                    assertEquals(fewestCards[amount], updated.cards(amount).size(), stock + " " + amount);
+                }
+            }
+        }
+    }
+
+    // fewest cards of each sum, trying every count of every card value
+    private static int[] fewestCards(Map<Integer, Integer> stock, int maxAmount) {
+        int[] fewest = new int[maxAmount + 1];
+        Arrays.fill(fewest, Integer.MAX_VALUE);
+        fewest[0] = 0;
+        for (Map.Entry<Integer, Integer> card : stock.entrySet()) {
+            int[] previous = fewest.clone();
+            for (int sum = 0; sum <= maxAmount; sum++) {
+                for (int count = 1; count <= card.getValue() && count * card.getKey() <= sum; count++) {
+                    int rest = previous[sum - count * card.getKey()];
+                    if (rest != Integer.MAX_VALUE && rest + count < fewest[sum]) {
+                        fewest[sum] = rest + count;
+                    }
+                }
+            }
+        }
+        return fewest;
+    }
+}
@@ -5,24 +5,31 @@ import com.wedogift.backend.entities.CompanyEntity;
 import com.wedogift.backend.entities.DepositEntity;
 import com.wedogift.backend.entities.EmployeeEntity;
 import com.wedogift.backend.exceptions.DuplicateResourceException;
+import com.wedogift.backend.exceptions.InvalidParameterException;
 import com.wedogift.backend.exceptions.NotEnoughBalanceException;
 import com.wedogift.backend.exceptions.ResourceNotFoundException;
 import com.wedogift.backend.mappers.CompaniesMapper;
 import com.wedogift.backend.mappers.EmployeesMapper;
+import com.wedogift.backend.metrics.DepositMetrics;
 import com.wedogift.backend.repos.CompaniesRepo;
+import com.wedogift.backend.repos.DepositsRepo;
 import com.wedogift.backend.repos.EmployeesRepo;
+import com.wedogift.backend.repos.LedgerRepo;
+import com.wedogift.backend.repos.LedgerRepoCustom.LedgerEntry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,15 +44,67 @@ class CompaniesServiceImplTest {
     private EmployeesMapper employeesMapper;
     @Mock
     private EmployeesRepo employeesRepo;
+    @Mock
+    private LedgerRepo ledgerRepo;
+    @Mock
+    private DepositsRepo depositsRepo;
 
     @Mock
     private CompaniesRepo companiesRepo;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private DepositMetrics depositMetrics;
     @InjectMocks
     private CompaniesServiceImpl companiesService;
 
 
+    @Test
+    void addCompanies_ShouldSaveAllTheCompaniesAtOnce() {
+        List<AddCompanyDto> addCompanyDtos = List.of(
+                AddCompanyDto.builder().name("Tesla").email("tesla@wedoostore.com").password("John").build(),
+                AddCompanyDto.builder().name("Nike").email("nike@wedoostore.com").password("Peter").build());
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        when(companiesRepo.existsByEmailIn(List.of("tesla@wedoostore.com", "nike@wedoostore.com"))).thenReturn(false);
+        when(companiesMapper.toEntity(ArgumentMatchers.any(AddCompanyDto.class)))
+                .thenAnswer(invocation -> CompanyEntity.builder().password(invocation.<AddCompanyDto>getArgument(0).password()).build());
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "encoded " + invocation.getArgument(0));
+        when(companiesRepo.saveAll(anyList())).thenAnswer(invocation -> {
+            List<CompanyEntity> companies = invocation.getArgument(0);
+            for (int i = 0; i < companies.size(); i++) {
+                companies.get(i).setId(ids.get(i));
+            }
+            return companies;
+        });
+
+        assertEquals(ids, companiesService.addCompanies(addCompanyDtos));
+        verify(passwordEncoder).encode("John");
+        verify(passwordEncoder).encode("Peter");
+        verify(companiesRepo, never()).save(any());
+    }
+
+    @Test
+    void addCompanies_WithTakenEmail_ShouldThrowDuplicateResourceException() {
+        List<AddCompanyDto> addCompanyDtos = List.of(AddCompanyDto.builder().name("Tesla").email("tesla@wedoostore.com").build());
+
+        when(companiesRepo.existsByEmailIn(List.of("tesla@wedoostore.com"))).thenReturn(true);
+
+        assertThrows(DuplicateResourceException.class, () -> companiesService.addCompanies(addCompanyDtos));
+        verify(companiesRepo, never()).saveAll(anyList());
+    }
+
+    @Test
+    void deleteAllCompanies_ShouldDeleteEachTableInOneStatement() {
+        companiesService.deleteAllCompanies();
+
+        var inOrder = inOrder(depositsRepo, employeesRepo, companiesRepo);
+        inOrder.verify(depositsRepo).deleteAllInBatch();
+        inOrder.verify(employeesRepo).deleteAllInBatch();
+        inOrder.verify(companiesRepo).deleteAllInBatch();
+        verify(companiesRepo, never()).deleteAll();
+    }
+
     @Test
     void addCompany() {
         // Given
@@ -102,14 +161,19 @@ class CompaniesServiceImplTest {
     @Test
     void getCompany() {
         String companyEmail = "company@wedoostrore.com";
-        CompanyEntity companyEntity = new CompanyEntity();
+        CompanyEntity companyEntity = CompanyEntity.builder().id(UUID.randomUUID()).build();
+        EmployeesRepo.EmployeeWithBalance employee = mock(EmployeesRepo.EmployeeWithBalance.class);
+        DisplayEmployeeDto employeeDto = DisplayEmployeeDto.builder().balance(50.0).build();
         when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(companyEntity));
-        when(companiesMapper.toDto(ArgumentMatchers.any(CompanyEntity.class))).thenReturn(DisplayCompanyDto.builder().email(companyEmail).build());
+        when(employeesRepo.findAllWithBalanceByCompanyId(companyEntity.getId())).thenReturn(List.of(employee));
+        when(employeesMapper.toDto(employee)).thenReturn(employeeDto);
+        when(companiesMapper.toDto(companyEntity, List.of(employeeDto))).thenReturn(DisplayCompanyDto.builder().email(companyEmail).users(List.of(employeeDto)).build());
 
         DisplayCompanyDto result = companiesService.getCompany(companyEmail);
 
         verify(companiesRepo, times(1)).findByEmail(companyEmail);
-        verify(companiesMapper, times(1)).toDto(ArgumentMatchers.any(CompanyEntity.class));
+        verify(employeesRepo, times(1)).findAllWithBalanceByCompanyId(companyEntity.getId());
+        verify(companiesMapper, times(1)).toDto(companyEntity, List.of(employeeDto));
 
         assertNotNull(result);
     }
@@ -146,19 +210,52 @@ class CompaniesServiceImplTest {
     @Test
     void getCompanyEmployees() {
         String companyEmail = "company@wedoostrore.com";
-        CompanyEntity companyEntity = new CompanyEntity();
+        CompanyEntity companyEntity = CompanyEntity.builder().id(UUID.randomUUID()).build();
         when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(companyEntity));
-        when(employeesRepo.findByCompany(ArgumentMatchers.any(CompanyEntity.class))).thenReturn(List.of(EmployeeEntity.builder().id(UUID.randomUUID()).build()));
-        when(employeesMapper.toDto(ArgumentMatchers.any(EmployeeEntity.class))).thenReturn(DisplayEmployeeDto.builder().build());
+        EmployeesRepo.EmployeeWithBalance employee = mock(EmployeesRepo.EmployeeWithBalance.class);
+        when(employeesRepo.findPageWithBalanceByCompanyId(eq(companyEntity.getId()), ArgumentMatchers.any(UUID.class), eq(PageRequest.of(0, 11))))
+                .thenReturn(List.of(employee));
+        when(employeesMapper.toDto(employee)).thenReturn(DisplayEmployeeDto.builder().build());
 
-        List<DisplayEmployeeDto> result = companiesService.getCompanyEmplyees(companyEmail);
+        EmployeesPageDto result = companiesService.getCompanyEmplyees(companyEmail, 10, null);
 
         verify(companiesRepo, times(1)).findByEmail(companyEmail);
-        verify(employeesRepo, times(1)).findByCompany(ArgumentMatchers.any(CompanyEntity.class));
-        verify(employeesMapper, times(1)).toDto(ArgumentMatchers.any(EmployeeEntity.class));
+        verify(employeesMapper, times(1)).toDto(employee);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
+        assertEquals(1, result.employees().size());
+        assertNull(result.nextPageToken());
+    }
+
+    @Test
+    void getCompanyEmployees_ShouldContinueAfterTheLastEmployeeOfThePreviousPage() {
+        String companyEmail = "company@wedoostrore.com";
+        CompanyEntity companyEntity = CompanyEntity.builder().id(UUID.randomUUID()).build();
+        UUID firstId = UUID.randomUUID();
+        EmployeesRepo.EmployeeWithBalance first = mock(EmployeesRepo.EmployeeWithBalance.class);
+        EmployeesRepo.EmployeeWithBalance second = mock(EmployeesRepo.EmployeeWithBalance.class);
+        when(first.getId()).thenReturn(firstId);
+        when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(companyEntity));
+        when(employeesRepo.findPageWithBalanceByCompanyId(eq(companyEntity.getId()), ArgumentMatchers.any(UUID.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(second));
+        when(employeesMapper.toDto(ArgumentMatchers.any(EmployeesRepo.EmployeeWithBalance.class))).thenReturn(DisplayEmployeeDto.builder().build());
+
+        EmployeesPageDto firstPage = companiesService.getCompanyEmplyees(companyEmail, 1, null);
+        EmployeesPageDto secondPage = companiesService.getCompanyEmplyees(companyEmail, 1, firstPage.nextPageToken());
+
+        assertNotNull(firstPage.nextPageToken());
+        assertNull(secondPage.nextPageToken());
+        verify(employeesRepo, times(1)).findPageWithBalanceByCompanyId(companyEntity.getId(), firstId, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void getCompanyEmployees_WithInvalidPageToken_ShouldThrowException() {
+        String companyEmail = "company@wedoostrore.com";
+        when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(new CompanyEntity()));
+
+        assertThrows(InvalidParameterException.class,
+                () -> companiesService.getCompanyEmplyees(companyEmail, 10, "not-a-token"));
     }
 
     @Test
@@ -186,18 +283,50 @@ class CompaniesServiceImplTest {
         String companyEmail = "company@wedoostrore.com";
         UUID userId = UUID.randomUUID();
         DepositBalanceDto depositBalanceDto = DepositBalanceDto.builder().depositDate(LocalDate.now()).balance(50.0).enumDepositType(EnumDepositType.GIFTS).build();
-        CompanyEntity companyEntity = CompanyEntity.builder().email(companyEmail).balance(500.0).build();
-        EmployeeEntity employeeEntity = new EmployeeEntity();
+        CompanyEntity companyEntity = CompanyEntity.builder().email(companyEmail).balance(50_000).build();
+        EmployeeEntity employeeReference = EmployeeEntity.builder().id(userId).build();
+        UUID depositId = UUID.randomUUID();
 
         when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(companyEntity));
-        when(employeesRepo.findByIdAndCompany(userId, companyEntity)).thenReturn(Optional.of(employeeEntity));
-        when(employeesRepo.save(ArgumentMatchers.any(EmployeeEntity.class))).thenReturn(new EmployeeEntity());
+        when(employeesRepo.existsByIdAndCompany(userId, companyEntity)).thenReturn(true);
+        when(companiesRepo.debitBalance(companyEntity.getId(), 5_000)).thenReturn(1);
+        when(employeesRepo.getReferenceById(userId)).thenReturn(employeeReference);
+        when(depositsRepo.save(ArgumentMatchers.any(DepositEntity.class))).thenAnswer(invocation -> {
+            DepositEntity deposit = invocation.getArgument(0);
+            deposit.setId(depositId);
+            return deposit;
+        });
 
         companiesService.depositBalanceToEmployee(companyEmail, userId, depositBalanceDto);
 
         verify(companiesRepo, times(1)).findByEmail(companyEmail);
-        verify(employeesRepo, times(1)).findByIdAndCompany(userId, companyEntity);
-        verify(employeesRepo, times(1)).save(ArgumentMatchers.any(EmployeeEntity.class));
+        verify(employeesRepo, times(1)).existsByIdAndCompany(userId, companyEntity);
+        verify(companiesRepo, times(1)).debitBalance(companyEntity.getId(), 5_000);
+        verify(depositsRepo, times(1)).save(ArgumentMatchers.argThat((DepositEntity deposit) -> deposit.getEmployee() == employeeReference));
+        verify(employeesRepo, never()).save(ArgumentMatchers.any(EmployeeEntity.class));
+        verify(ledgerRepo, times(1)).appendAll(List.of(
+                LedgerEntry.companyDebit(companyEntity.getId(), 5_000),
+                LedgerEntry.employeeCredit(companyEntity.getId(), userId, depositId, EnumDepositType.GIFTS, 5_000)));
+        verify(depositMetrics, times(1)).recordDeposit(EnumDepositType.GIFTS, 5_000);
+    }
+
+    @Test
+    void depositAlreadyExpired_ShouldOnlyRecordTheCompanyDebit() {
+        String companyEmail = "company@wedoostrore.com";
+        UUID userId = UUID.randomUUID();
+        DepositBalanceDto depositBalanceDto = DepositBalanceDto.builder().depositDate(LocalDate.now().minusYears(2)).balance(50.0).enumDepositType(EnumDepositType.MEALS).build();
+        CompanyEntity companyEntity = CompanyEntity.builder().email(companyEmail).balance(50_000).build();
+
+        when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(companyEntity));
+        when(employeesRepo.existsByIdAndCompany(userId, companyEntity)).thenReturn(true);
+        when(companiesRepo.debitBalance(companyEntity.getId(), 5_000)).thenReturn(1);
+        when(depositsRepo.save(ArgumentMatchers.any(DepositEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        companiesService.depositBalanceToEmployee(companyEmail, userId, depositBalanceDto);
+
+        verify(companiesRepo, times(1)).debitBalance(companyEntity.getId(), 5_000);
+        verify(depositsRepo, times(1)).save(ArgumentMatchers.argThat(DepositEntity::isExpired));
+        verify(ledgerRepo, times(1)).appendAll(List.of(LedgerEntry.companyDebit(companyEntity.getId(), 5_000)));
     }
 
     @Test
@@ -210,17 +339,86 @@ class CompaniesServiceImplTest {
         String expectedErrorMessage = "Not enough balance for company with ID: " + companyId;
         UUID userId = UUID.randomUUID();
         DepositBalanceDto depositBalanceDto = DepositBalanceDto.builder().depositDate(LocalDate.now()).balance(50.0).enumDepositType(EnumDepositType.GIFTS).build();
-        CompanyEntity companyEntity = CompanyEntity.builder().id(companyId).balance(5.0).build();
-        EmployeeEntity employeeEntity = new EmployeeEntity();
+        CompanyEntity companyEntity = CompanyEntity.builder().id(companyId).balance(500).build();
         //When
         when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(companyEntity));
-        when(employeesRepo.findByIdAndCompany(userId, companyEntity)).thenReturn(Optional.of(employeeEntity));
+        when(employeesRepo.existsByIdAndCompany(userId, companyEntity)).thenReturn(true);
+        when(companiesRepo.debitBalance(companyId, 5_000)).thenReturn(0);
         // Execute
         NotEnoughBalanceException exception = assertThrows(NotEnoughBalanceException.class,
                 () -> companiesService.depositBalanceToEmployee(companyEmail, userId, depositBalanceDto));
 
         // Then
         assertEquals(expectedErrorMessage, exception.getMessage());
+        verifyNoInteractions(depositsRepo, ledgerRepo);
+        verify(depositMetrics, times(1)).recordNotEnoughBalance();
+        verify(depositMetrics, never()).recordDeposit(any(), anyLong());
+    }
+
+    @Test
+    void depositToUnknownUser_ShouldThrow_Exception() {
+        String companyEmail = "company@wedoostrore.com";
+        UUID userId = UUID.randomUUID();
+        DepositBalanceDto depositBalanceDto = DepositBalanceDto.builder().depositDate(LocalDate.now()).balance(50.0).enumDepositType(EnumDepositType.GIFTS).build();
+        CompanyEntity companyEntity = CompanyEntity.builder().id(UUID.randomUUID()).email(companyEmail).balance(50_000).build();
+
+        when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(companyEntity));
+        when(employeesRepo.existsByIdAndCompany(userId, companyEntity)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> companiesService.depositBalanceToEmployee(companyEmail, userId, depositBalanceDto));
+        verify(companiesRepo, never()).debitBalance(any(), anyLong());
+        verifyNoInteractions(depositsRepo, ledgerRepo);
+    }
+
+    @Test
+    void depositBalanceToUsers_ShouldDebitCompanyOnceAndReportUnknownUsers() {
+        String companyEmail = "company@wedoostrore.com";
+        UUID companyId = UUID.randomUUID();
+        UUID unknownUserId = UUID.randomUUID();
+        CompanyEntity companyEntity = CompanyEntity.builder().id(companyId).email(companyEmail).balance(50_000).build();
+        EmployeeEntity employeeEntity = EmployeeEntity.builder().id(UUID.randomUUID()).build();
+        BatchDepositDto batchDepositDto = BatchDepositDto.builder().deposits(List.of(
+                batchDepositItem(employeeEntity.getId(), 50.0),
+                batchDepositItem(employeeEntity.getId(), 20.0),
+                batchDepositItem(unknownUserId, 10.0))).build();
+
+        when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(companyEntity));
+        when(employeesRepo.findByCompanyAndIdIn(companyEntity, Set.of(employeeEntity.getId(), unknownUserId))).thenReturn(List.of(employeeEntity));
+        when(companiesRepo.debitBalance(companyId, 7_000)).thenReturn(1);
+
+        List<BatchDepositResultDto> results = companiesService.depositBalanceToEmployees(companyEmail, batchDepositDto);
+
+        verify(companiesRepo, times(1)).debitBalance(companyId, 7_000);
+        verify(depositsRepo, times(1)).saveAll(ArgumentMatchers.argThat((List<DepositEntity> deposits) -> deposits.size() == 2));
+        verify(ledgerRepo, times(1)).appendAll(List.of(
+                LedgerEntry.companyDebit(companyId, 7_000),
+                LedgerEntry.employeeCredit(companyId, employeeEntity.getId(), null, EnumDepositType.GIFTS, 5_000),
+                LedgerEntry.employeeCredit(companyId, employeeEntity.getId(), null, EnumDepositType.GIFTS, 2_000)));
+        assertEquals(List.of(EnumDepositStatus.DEPOSITED, EnumDepositStatus.DEPOSITED, EnumDepositStatus.EMPLOYEE_NOT_FOUND),
+                results.stream().map(BatchDepositResultDto::status).toList());
+    }
+
+    @Test
+    void depositBalanceToUsersWithNotEnoughBalance_ShouldThrow_Exception() {
+        String companyEmail = "company@wedoostrore.com";
+        UUID companyId = UUID.randomUUID();
+        CompanyEntity companyEntity = CompanyEntity.builder().id(companyId).email(companyEmail).balance(500).build();
+        EmployeeEntity employeeEntity = EmployeeEntity.builder().id(UUID.randomUUID()).build();
+        BatchDepositDto batchDepositDto = BatchDepositDto.builder().deposits(List.of(batchDepositItem(employeeEntity.getId(), 50.0))).build();
+
+        when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(companyEntity));
+        when(employeesRepo.findByCompanyAndIdIn(companyEntity, Set.of(employeeEntity.getId()))).thenReturn(List.of(employeeEntity));
+        when(companiesRepo.debitBalance(companyId, 5_000)).thenReturn(0);
+
+        assertThrows(NotEnoughBalanceException.class,
+                () -> companiesService.depositBalanceToEmployees(companyEmail, batchDepositDto));
+        verifyNoInteractions(depositsRepo, ledgerRepo);
+    }
+
+    private BatchDepositItemDto batchDepositItem(UUID employeeId, Double balance) {
+        return BatchDepositItemDto.builder().employeeId(employeeId).balance(balance)
+                .depositDate(LocalDate.now()).enumDepositType(EnumDepositType.GIFTS).build();
     }
 
     @Test
@@ -228,22 +426,20 @@ class CompaniesServiceImplTest {
         String companyEmail = "company@wedoostrore.com";
         UUID userId = UUID.randomUUID();
         CompanyEntity companyEntity = new CompanyEntity();
-        EmployeeEntity employeeEntity = new EmployeeEntity();
-        DepositEntity depositEntity = new DepositEntity();
-        depositEntity.setBalance(50.0);
-        depositEntity.setDepositType(EnumDepositType.GIFTS.name());
-        depositEntity.setDepositDate(LocalDate.now().minusDays(100));
-
-        employeeEntity.addDeposit(depositEntity);
-        companyEntity.setBalance(100.0);
+        EmployeeEntity employeeEntity = EmployeeEntity.builder().id(userId).build();
+        companyEntity.setBalance(10_000);
 
         when(companiesRepo.findByEmail(companyEmail)).thenReturn(Optional.of(companyEntity));
         when(employeesRepo.findByIdAndCompany(userId, companyEntity)).thenReturn(Optional.of(employeeEntity));
+        LedgerRepo.EmployeeBalance employeeBalance = mock(LedgerRepo.EmployeeBalance.class);
+        when(employeeBalance.getBalance()).thenReturn(5_000L);
+        when(ledgerRepo.findBalanceByEmployeeId(eq(userId), any(LocalDate.class))).thenReturn(employeeBalance);
 
         GetBalanceDto result = companiesService.getEmployeeBalance(companyEmail, userId);
 
         verify(companiesRepo, times(1)).findByEmail(companyEmail);
         verify(employeesRepo, times(1)).findByIdAndCompany(userId, companyEntity);
+        verify(ledgerRepo, times(1)).findBalanceByEmployeeId(eq(userId), any(LocalDate.class));
 
         assertNotNull(result);
         assertEquals(50.0, result.balance());
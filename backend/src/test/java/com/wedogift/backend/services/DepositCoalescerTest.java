@@ -0,0 +1,219 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.dtos.*;
+import com.wedogift.backend.exceptions.NotEnoughBalanceException;
+import com.wedogift.backend.exceptions.ResourceNotFoundException;
+import com.wedogift.backend.exceptions.ServiceUnavailableException;
+import com.wedogift.backend.metrics.DepositMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DepositCoalescerTest {
+
+    private static final String COMPANY_EMAIL = "company@wedoostrore.com";
+    private static final DepositBalanceDto DEPOSIT = DepositBalanceDto.builder().depositDate(LocalDate.now())
+            .balance(50.0).enumDepositType(EnumDepositType.GIFTS).build();
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Mock
+    private CompaniesService companiesService;
+    @Mock
+    private DepositMetrics depositMetrics;
+
+    private DepositCoalescer depositCoalescer;
+
+    @AfterEach
+    void tearDown() {
+        depositCoalescer.shutdown();
+    }
+
+    @Test
+    void deposit_WhenDisabled_ShouldDepositDirectly() {
+        depositCoalescer = new DepositCoalescer(companiesService, depositMetrics, false, 10, 1, TIMEOUT);
+        UUID employeeId = UUID.randomUUID();
+
+        depositCoalescer.deposit(COMPANY_EMAIL, employeeId, DEPOSIT);
+
+        verify(companiesService, times(1)).depositBalanceToEmployee(COMPANY_EMAIL, employeeId, DEPOSIT);
+        verifyNoInteractions(depositMetrics);
+    }
+
+    @Test
+    void deposit_ShouldCoalesceTheDepositsQueuedWhileTheWriterIsBusy() throws Exception {
+        depositCoalescer = new DepositCoalescer(companiesService, depositMetrics, true, 10, 1, TIMEOUT);
+        UUID unknownEmployeeId = UUID.randomUUID();
+        when(companiesService.depositBalanceToEmployees(eq(COMPANY_EMAIL), any(BatchDepositDto.class))).thenAnswer(invocation ->
+                ((BatchDepositDto) invocation.getArgument(1)).deposits().stream().map(item -> BatchDepositResultDto.builder()
+                        .employeeId(item.employeeId())
+                        .status(item.employeeId().equals(unknownEmployeeId) ? EnumDepositStatus.EMPLOYEE_NOT_FOUND : EnumDepositStatus.DEPOSITED)
+                        .message(CompaniesServiceImpl.NO_USER_WITH_THE_GIVEN_ID_FOUND)
+                        .build()).toList());
+
+        Map<UUID, Throwable> failures = depositWhileTheWriterIsBusy(List.of(UUID.randomUUID(), UUID.randomUUID(), unknownEmployeeId));
+
+        verify(companiesService, times(1)).depositBalanceToEmployees(eq(COMPANY_EMAIL),
+                argThat((BatchDepositDto batch) -> batch.deposits().size() == 3));
+        verify(depositMetrics, times(1)).recordCoalescedBatch(1);
+        verify(depositMetrics, times(1)).recordCoalescedBatch(3);
+        assertEquals(1, failures.size());
+        assertInstanceOf(ResourceNotFoundException.class, failures.get(unknownEmployeeId));
+        //the queue of the company is removed once drained
+        assertEquals(0, depositCoalescer.companyQueues());
+    }
+
+    @Test
+    void deposit_WhenTheBatchDoesNotFit_ShouldRunEachDepositAlone() throws Exception {
+        depositCoalescer = new DepositCoalescer(companiesService, depositMetrics, true, 10, 1, TIMEOUT);
+        UUID rejectedEmployeeId = UUID.randomUUID();
+        when(companiesService.depositBalanceToEmployees(eq(COMPANY_EMAIL), any(BatchDepositDto.class)))
+                .thenThrow(new NotEnoughBalanceException("Not enough balance"));
+        doThrow(new NotEnoughBalanceException("Not enough balance"))
+                .when(companiesService).depositBalanceToEmployee(COMPANY_EMAIL, rejectedEmployeeId, DEPOSIT);
+
+        Map<UUID, Throwable> failures = depositWhileTheWriterIsBusy(List.of(UUID.randomUUID(), rejectedEmployeeId));
+
+        verify(companiesService, times(3)).depositBalanceToEmployee(eq(COMPANY_EMAIL), any(UUID.class), eq(DEPOSIT));
+        assertEquals(1, failures.size());
+        assertInstanceOf(NotEnoughBalanceException.class, failures.get(rejectedEmployeeId));
+    }
+
+    @Test
+    void deposit_WhenTheWriterIsTooSlow_ShouldDropTheQueuedDeposit() throws Exception {
+        depositCoalescer = new DepositCoalescer(companiesService, depositMetrics, true, 10, 1, Duration.ofMillis(100));
+        UUID firstEmployeeId = UUID.randomUUID();
+        UUID droppedEmployeeId = UUID.randomUUID();
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writerBusy.countDown();
+            release.await();
+            return null;
+        }).when(companiesService).depositBalanceToEmployee(COMPANY_EMAIL, firstEmployeeId, DEPOSIT);
+
+        Map<UUID, Throwable> failures = new ConcurrentHashMap<>();
+        Thread first = startDeposit(firstEmployeeId, failures);
+        writerBusy.await();
+
+        assertThrows(ServiceUnavailableException.class, () -> depositCoalescer.deposit(COMPANY_EMAIL, droppedEmployeeId, DEPOSIT));
+        release.countDown();
+        first.join();
+
+        verify(companiesService, never()).depositBalanceToEmployee(COMPANY_EMAIL, droppedEmployeeId, DEPOSIT);
+        //the first deposit was already taken by the writer, its caller waited for it
+        assertTrue(failures.isEmpty());
+    }
+
+    @Test
+    void deposit_WhenTheWriterIsSlowerThanTheTimeout_ShouldWaitForTheTakenDeposit() throws Exception {
+        depositCoalescer = new DepositCoalescer(companiesService, depositMetrics, true, 10, 1, Duration.ofMillis(50));
+        UUID employeeId = UUID.randomUUID();
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writerBusy.countDown();
+            release.await();
+            return null;
+        }).when(companiesService).depositBalanceToEmployee(COMPANY_EMAIL, employeeId, DEPOSIT);
+
+        Map<UUID, Throwable> failures = new ConcurrentHashMap<>();
+        Thread caller = startDeposit(employeeId, failures);
+        writerBusy.await();
+        //the timeout is over, the caller now waits without one for the writer
+        while (caller.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        caller.join();
+
+        assertTrue(failures.isEmpty());
+        verify(companiesService, times(1)).depositBalanceToEmployee(COMPANY_EMAIL, employeeId, DEPOSIT);
+    }
+
+    @Test
+    void deposit_WhenTheWriterFailsWithAnError_ShouldFailTheDepositAndKeepDraining() {
+        depositCoalescer = new DepositCoalescer(companiesService, depositMetrics, true, 10, 1, TIMEOUT);
+        UUID failingEmployeeId = UUID.randomUUID();
+        UUID employeeId = UUID.randomUUID();
+        doThrow(new StackOverflowError()).when(companiesService).depositBalanceToEmployee(COMPANY_EMAIL, failingEmployeeId, DEPOSIT);
+
+        assertThrows(IllegalStateException.class, () -> depositCoalescer.deposit(COMPANY_EMAIL, failingEmployeeId, DEPOSIT));
+        depositCoalescer.deposit(COMPANY_EMAIL, employeeId, DEPOSIT);
+
+        verify(companiesService, times(1)).depositBalanceToEmployee(COMPANY_EMAIL, employeeId, DEPOSIT);
+    }
+
+    @Test
+    void deposit_AfterShutdown_ShouldReturnServiceUnavailable() {
+        depositCoalescer = new DepositCoalescer(companiesService, depositMetrics, true, 10, 1, TIMEOUT);
+        depositCoalescer.shutdown();
+
+        assertThrows(ServiceUnavailableException.class, () -> depositCoalescer.deposit(COMPANY_EMAIL, UUID.randomUUID(), DEPOSIT));
+        assertEquals(0, depositCoalescer.companyQueues());
+        verifyNoInteractions(companiesService);
+    }
+
+    /**
+     * Blocks the writer on a first deposit, queues the given deposits meanwhile, then releases the writer
+     *
+     * @return the failure of each deposit that failed
+     */
+    private Map<UUID, Throwable> depositWhileTheWriterIsBusy(List<UUID> employeeIds) throws InterruptedException {
+        UUID firstEmployeeId = UUID.randomUUID();
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writerBusy.countDown();
+            release.await();
+            return null;
+        }).when(companiesService).depositBalanceToEmployee(COMPANY_EMAIL, firstEmployeeId, DEPOSIT);
+
+        Map<UUID, Throwable> failures = new ConcurrentHashMap<>();
+        Thread first = startDeposit(firstEmployeeId, failures);
+        writerBusy.await();
+        List<Thread> queued = new ArrayList<>();
+        for (UUID employeeId : employeeIds) {
+            queued.add(startDeposit(employeeId, failures));
+        }
+        //every queued caller is parked waiting for its deposit
+        while (queued.stream().anyMatch(thread -> thread.getState() != Thread.State.TIMED_WAITING)) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        first.join();
+        for (Thread thread : queued) {
+            thread.join();
+        }
+        return failures;
+    }
+
+    private Thread startDeposit(UUID employeeId, Map<UUID, Throwable> failures) {
+        Thread thread = new Thread(() -> {
+            try {
+                depositCoalescer.deposit(COMPANY_EMAIL, employeeId, DEPOSIT);
+            } catch (RuntimeException e) {
+                failures.put(employeeId, e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+}
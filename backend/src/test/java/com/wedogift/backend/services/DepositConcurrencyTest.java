@@ -0,0 +1,104 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.AbstractPostgresTest;
+import com.wedogift.backend.dtos.AddCompanyDto;
+import com.wedogift.backend.dtos.AddEmployeeDto;
+import com.wedogift.backend.dtos.DepositBalanceDto;
+import com.wedogift.backend.dtos.EnumDepositType;
+import com.wedogift.backend.exceptions.NotEnoughBalanceException;
+import com.wedogift.backend.repos.CompaniesRepo;
+import com.wedogift.backend.repos.EmployeeBalanceSnapshotsRepo;
+import com.wedogift.backend.repos.JobStatesRepo;
+import com.wedogift.backend.repos.LedgerRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DepositConcurrencyTest extends AbstractPostgresTest {
+
+    private static final int THREADS = 32;
+    private static final int DEPOSITS_PER_THREAD = 25;
+    private static final double COMPANY_BALANCE = 500.0;
+
+    @Autowired
+    private CompaniesService companiesService;
+    @Autowired
+    private CompaniesRepo companiesRepo;
+    @Autowired
+    private LedgerRepo ledgerRepo;
+    @Autowired
+    private EmployeeBalanceSnapshotsRepo employeeBalanceSnapshotsRepo;
+    @Autowired
+    private JobStatesRepo jobStatesRepo;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentDeposits_ShouldNeverOverdrawTheCompanyNorLoseMoney() throws Exception {
+        //Given
+        String companyEmail = "concurrency@wedoostore.com";
+        companiesService.addCompany(AddCompanyDto.builder().name("Concurrency").email(companyEmail)
+                .password("secret").balance(COMPANY_BALANCE).build());
+        companiesService.addEmployeeToCompany(companyEmail, AddEmployeeDto.builder().name("Jessica").build());
+        UUID employeeId = companiesService.getCompanyEmplyees(companyEmail, 1, null).employees().get(0).id();
+        DepositBalanceDto deposit = DepositBalanceDto.builder().depositDate(LocalDate.now())
+                .balance(1.0).enumDepositType(EnumDepositType.GIFTS).build();
+
+        //When
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < DEPOSITS_PER_THREAD; j++) {
+                    try {
+                        companiesService.depositBalanceToEmployee(companyEmail, employeeId, deposit);
+                        accepted.incrementAndGet();
+                    } catch (NotEnoughBalanceException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //Then
+        long companyBalance = companiesRepo.findByEmail(companyEmail).orElseThrow().getBalance();
+        Long depositedCents = jdbcTemplate.queryForObject(
+                "select coalesce(sum(balance), 0) from deposits where employee_id = ?", Long.class, employeeId);
+        assertEquals((int) COMPANY_BALANCE, accepted.get());
+        assertEquals(THREADS * DEPOSITS_PER_THREAD - (int) COMPANY_BALANCE, rejected.get());
+        assertEquals(0, companyBalance);
+        assertEquals((long) (COMPANY_BALANCE * 100), depositedCents);
+        assertEquals(COMPANY_BALANCE, companiesService.getEmployeeBalance(companyEmail, employeeId).balance());
+        //the ledger matches the deposits history
+        assertEquals(depositedCents, ledgerRepo.replayBalanceByEmployeeId(employeeId));
+        //and the balance is unchanged once the ledger is folded into the snapshots
+        new LedgerSnapshotScheduler(ledgerRepo, employeeBalanceSnapshotsRepo, jobStatesRepo, transactionTemplate).takeSnapshots();
+        assertEquals(depositedCents, employeeBalanceSnapshotsRepo.findById(employeeId).orElseThrow().getBalance());
+        assertEquals(COMPANY_BALANCE, companiesService.getEmployeeBalance(companyEmail, employeeId).balance());
+    }
+}
@@ -0,0 +1,100 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.dtos.EnumDepositType;
+import com.wedogift.backend.entities.JobStateEntity;
+import com.wedogift.backend.repos.DepositsRepo;
+import com.wedogift.backend.repos.JobStatesRepo;
+import com.wedogift.backend.repos.LedgerRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DepositExpirySchedulerTest {
+
+    @Mock
+    private DepositsRepo depositsRepo;
+    @Mock
+    private LedgerRepo ledgerRepo;
+    @Mock
+    private JobStatesRepo jobStatesRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DepositExpiryScheduler depositExpiryScheduler;
+
+    @BeforeEach
+    void setUp() {
+        depositExpiryScheduler = new DepositExpiryScheduler(depositsRepo, ledgerRepo, jobStatesRepo,
+                new TransactionTemplate(transactionManager), 2);
+    }
+
+    @Test
+    void expireDeposits_ShouldAppendExpirationsAndMarkDepositsExpired() {
+        UUID employeeId = UUID.randomUUID();
+        LocalDate today = LocalDate.now();
+        LocalDate lastRun = today.minusDays(1);
+        JobStateEntity state = JobStateEntity.builder().name(DepositExpiryScheduler.JOB_NAME).watermark(lastRun).build();
+        DepositsRepo.ExpiringDeposit first = expiringDeposit(employeeId, 3_000, lastRun);
+        DepositsRepo.ExpiringDeposit second = expiringDeposit(employeeId, 2_000, lastRun);
+
+        when(jobStatesRepo.findForUpdate(DepositExpiryScheduler.JOB_NAME)).thenReturn(Optional.of(state));
+        when(depositsRepo.findExpiring(eq(lastRun), eq(today), eq(lastRun), any(UUID.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of());
+
+        depositExpiryScheduler.expireDeposits();
+
+        verify(ledgerRepo, times(1)).appendExpirations(List.of(first.getId(), second.getId()));
+        verify(depositsRepo, times(1)).markExpired(List.of(first.getId(), second.getId()));
+        verify(depositsRepo, times(2)).findExpiring(any(), any(), any(), any(), ArgumentMatchers.any(PageRequest.class));
+        assertEquals(lastRun, state.getWatermark());
+    }
+
+    @Test
+    void expireDeposits_WithADepositCommittedAfterThePreviousRun_ShouldStillExpireIt() {
+        UUID employeeId = UUID.randomUUID();
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        JobStateEntity state = JobStateEntity.builder().name(DepositExpiryScheduler.JOB_NAME).watermark(LocalDate.EPOCH).build();
+        DepositsRepo.ExpiringDeposit late = expiringDeposit(employeeId, 1_000, yesterday);
+
+        when(jobStatesRepo.findForUpdate(DepositExpiryScheduler.JOB_NAME)).thenReturn(Optional.of(state));
+        when(depositsRepo.findExpiring(eq(LocalDate.EPOCH), eq(today), eq(LocalDate.EPOCH), any(UUID.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of());
+        when(depositsRepo.findExpiring(eq(yesterday), eq(today), eq(yesterday), any(UUID.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(late));
+
+        //the previous run read nothing, the late deposit is committed before the next one
+        depositExpiryScheduler.expireDeposits();
+        depositExpiryScheduler.expireDeposits();
+
+        verify(ledgerRepo, times(1)).appendExpirations(List.of(late.getId()));
+        verify(depositsRepo, times(1)).markExpired(List.of(late.getId()));
+        assertEquals(yesterday, state.getWatermark());
+    }
+
+    private DepositsRepo.ExpiringDeposit expiringDeposit(UUID employeeId, long balance, LocalDate expiresOn) {
+        DepositsRepo.ExpiringDeposit deposit = mock(DepositsRepo.ExpiringDeposit.class);
+        lenient().when(deposit.getId()).thenReturn(UUID.randomUUID());
+        lenient().when(deposit.getEmployeeId()).thenReturn(employeeId);
+        lenient().when(deposit.getDepositType()).thenReturn(EnumDepositType.GIFTS);
+        lenient().when(deposit.getBalance()).thenReturn(balance);
+        lenient().when(deposit.getExpiresOn()).thenReturn(expiresOn);
+        return deposit;
+    }
+}
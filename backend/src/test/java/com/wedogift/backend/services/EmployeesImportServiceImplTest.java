@@ -0,0 +1,115 @@
+package com.wedogift.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wedogift.backend.dtos.EnumImportFormat;
+import com.wedogift.backend.dtos.ImportReportDto;
+import com.wedogift.backend.entities.CompanyEntity;
+import com.wedogift.backend.entities.EmployeeEntity;
+import com.wedogift.backend.repos.CompaniesRepo;
+import com.wedogift.backend.repos.EmployeesRepo;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeesImportServiceImplTest {
+
+    private static final String COMPANY_EMAIL = "company@wedoostrore.com";
+
+    @Mock
+    private CompaniesRepo companiesRepo;
+    @Mock
+    private EmployeesRepo employeesRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final CompanyEntity companyEntity = CompanyEntity.builder().id(UUID.randomUUID()).email(COMPANY_EMAIL).build();
+    private final List<String> insertedNames = new ArrayList<>();
+    private EmployeesImportServiceImpl employeesImportService;
+
+    @BeforeEach
+    void setUp() {
+        employeesImportService = new EmployeesImportServiceImpl(companiesRepo, employeesRepo, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new TransactionTemplate(transactionManager), 2);
+        when(companiesRepo.findByEmail(COMPANY_EMAIL)).thenReturn(Optional.of(companyEntity));
+        //the batch list is reused by the service, keep a copy of the inserted names
+        lenient().doAnswer(invocation -> {
+            List<EmployeeEntity> employees = invocation.getArgument(1);
+            employees.forEach(employee -> insertedNames.add(employee.getName()));
+            return null;
+        }).when(employeesRepo).insertAll(eq(companyEntity.getId()), any());
+    }
+
+    @Test
+    void importCsv_ShouldInsertByBatchesAndReportInvalidRows() throws Exception {
+        String csv = """
+                name
+                John
+                "Doe, Jane"
+
+                ""
+                Peter,extra column
+                """;
+
+        ImportReportDto report = employeesImportService.importEmployees(COMPANY_EMAIL, EnumImportFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(5, report.errors().get(0).line());
+        assertEquals(List.of("John", "Doe, Jane", "Peter"), insertedNames);
+        verify(employeesRepo, times(2)).insertAll(eq(companyEntity.getId()), any());
+    }
+
+    @Test
+    void importCsv_WithManyQuotedColumns_ShouldReadTheFirstOne() throws Exception {
+        String csv = """
+                name,team
+                "Doe, Jane","Sales, ""EU""\"
+                "O""Brien",Support "Tier 1"
+                "Unterminated, name
+                """;
+
+        ImportReportDto report = employeesImportService.importEmployees(COMPANY_EMAIL, EnumImportFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(4, report.errors().get(0).line());
+        assertEquals(List.of("Doe, Jane", "O\"Brien"), insertedNames);
+    }
+
+    @Test
+    void importNdjson_ShouldReportMalformedRows() throws Exception {
+        String ndjson = """
+                {"name": "John"}
+                {"name":
+                {"name": "Jessica"}
+                """;
+
+        ImportReportDto report = employeesImportService.importEmployees(COMPANY_EMAIL, EnumImportFormat.NDJSON,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(2, report.errors().get(0).line());
+        assertEquals(List.of("John", "Jessica"), insertedNames);
+    }
+}
@@ -0,0 +1,63 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.entities.JobStateEntity;
+import com.wedogift.backend.repos.EmployeeBalanceSnapshotsRepo;
+import com.wedogift.backend.repos.JobStatesRepo;
+import com.wedogift.backend.repos.LedgerRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerSnapshotSchedulerTest {
+
+    @Mock
+    private LedgerRepo ledgerRepo;
+    @Mock
+    private EmployeeBalanceSnapshotsRepo employeeBalanceSnapshotsRepo;
+    @Mock
+    private JobStatesRepo jobStatesRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerSnapshotScheduler ledgerSnapshotScheduler;
+
+    @BeforeEach
+    void setUp() {
+        ledgerSnapshotScheduler = new LedgerSnapshotScheduler(ledgerRepo, employeeBalanceSnapshotsRepo, jobStatesRepo,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void takeSnapshots_ShouldFoldTheEntriesSinceTheLastRun() {
+        JobStateEntity state = JobStateEntity.builder().name(LedgerSnapshotScheduler.JOB_NAME).position(100L).build();
+        when(jobStatesRepo.findForUpdate(LedgerSnapshotScheduler.JOB_NAME)).thenReturn(Optional.of(state));
+        when(ledgerRepo.findOldestRunningTransactionId()).thenReturn(250L);
+
+        ledgerSnapshotScheduler.takeSnapshots();
+
+        verify(employeeBalanceSnapshotsRepo, times(1)).takeSnapshots(100L, 250L);
+        assertEquals(250L, state.getPosition());
+    }
+
+    @Test
+    void takeSnapshots_WithoutNewEntries_ShouldNotTouchTheSnapshots() {
+        JobStateEntity state = JobStateEntity.builder().name(LedgerSnapshotScheduler.JOB_NAME).position(100L).build();
+        when(jobStatesRepo.findForUpdate(LedgerSnapshotScheduler.JOB_NAME)).thenReturn(Optional.of(state));
+        when(ledgerRepo.findOldestRunningTransactionId()).thenReturn(100L);
+
+        ledgerSnapshotScheduler.takeSnapshots();
+
+        verifyNoInteractions(employeeBalanceSnapshotsRepo);
+        assertEquals(100L, state.getPosition());
+    }
+}
@@ -0,0 +1,115 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.AbstractPostgresTest;
+import com.wedogift.backend.dtos.AddCompanyDto;
+import com.wedogift.backend.dtos.AddEmployeeDto;
+import com.wedogift.backend.dtos.DepositBalanceDto;
+import com.wedogift.backend.dtos.EnumDepositType;
+import com.wedogift.backend.repos.CompaniesRepo;
+import com.wedogift.backend.repos.EmployeeBalanceSnapshotsRepo;
+import com.wedogift.backend.repos.LedgerRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerSnapshotTest extends AbstractPostgresTest {
+
+    private static final String APPEND_CREDIT_SQL = """
+            insert into balance_ledger (entry_type, company_id, employee_id, amount)
+            values (2, ?, ?, ?)
+            returning id
+            """;
+
+    @Autowired
+    private CompaniesService companiesService;
+    @Autowired
+    private CompaniesRepo companiesRepo;
+    @Autowired
+    private LedgerRepo ledgerRepo;
+    @Autowired
+    private EmployeeBalanceSnapshotsRepo employeeBalanceSnapshotsRepo;
+    @Autowired
+    private LedgerSnapshotScheduler ledgerSnapshotScheduler;
+    @Autowired
+    private DepositExpiryScheduler depositExpiryScheduler;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void takeSnapshots_WithALowerIdCommittedAfterAHigherOne_ShouldNotLoseIt() throws Exception {
+        //Given
+        String companyEmail = "snapshots@wedoostore.com";
+        companiesService.addCompany(AddCompanyDto.builder().name("Snapshots").email(companyEmail)
+                .password("secret").balance(0.0).build());
+        companiesService.addEmployeeToCompany(companyEmail, AddEmployeeDto.builder().name("Jessica").build());
+        UUID companyId = companiesRepo.findByEmail(companyEmail).orElseThrow().getId();
+        UUID employeeId = companiesService.getCompanyEmplyees(companyEmail, 1, null).employees().get(0).id();
+        ledgerSnapshotScheduler.takeSnapshots();
+
+        try (Connection slow = dataSource.getConnection(); Connection fast = dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            long lowerId = appendCredit(slow, companyId, employeeId, 1_000);
+            long higherId = appendCredit(fast, companyId, employeeId, 2_000);
+            assertTrue(lowerId < higherId);
+
+            //When the higher id is snapshotted while the lower one is not committed yet
+            ledgerSnapshotScheduler.takeSnapshots();
+            assertEquals(2_000, ledgerRepo.findBalanceByEmployeeId(employeeId, LocalDate.now()).getBalance());
+            slow.commit();
+        }
+        ledgerSnapshotScheduler.takeSnapshots();
+
+        //Then
+        assertEquals(3_000, ledgerRepo.replayBalanceByEmployeeId(employeeId));
+        assertEquals(3_000, ledgerRepo.findBalanceByEmployeeId(employeeId, LocalDate.now()).getBalance());
+        assertEquals(0, ledgerRepo.findBalanceByEmployeeId(employeeId, LocalDate.now()).getRowsScanned());
+        assertEquals(3_000, employeeBalanceSnapshotsRepo.findById(employeeId).orElseThrow().getBalance());
+    }
+
+    @Test
+    void getEmployeeBalance_WithADepositExpiredBeforeTheSweep_ShouldLeaveItOut() {
+        //Given a deposit which expired yesterday and is not swept yet
+        String companyEmail = "unswept@wedoostore.com";
+        companiesService.addCompany(AddCompanyDto.builder().name("Unswept").email(companyEmail)
+                .password("secret").balance(100.0).build());
+        companiesService.addEmployeeToCompany(companyEmail, AddEmployeeDto.builder().name("John").build());
+        UUID employeeId = companiesService.getCompanyEmplyees(companyEmail, 1, null).employees().get(0).id();
+        DepositBalanceDto deposit = DepositBalanceDto.builder().depositDate(LocalDate.now())
+                .balance(30.0).enumDepositType(EnumDepositType.GIFTS).build();
+        companiesService.depositBalanceToEmployee(companyEmail, employeeId, deposit);
+        companiesService.depositBalanceToEmployee(companyEmail, employeeId, deposit);
+        jdbcTemplate.update("update deposits set expires_on = ? where id = (select id from deposits where employee_id = ? limit 1)",
+                LocalDate.now().minusDays(1), employeeId);
+
+        //Then
+        assertEquals(30.0, companiesService.getEmployeeBalance(companyEmail, employeeId).balance());
+        //and it is not taken out twice once swept
+        depositExpiryScheduler.expireDeposits();
+        assertEquals(30.0, companiesService.getEmployeeBalance(companyEmail, employeeId).balance());
+    }
+
+    private static long appendCredit(Connection connection, UUID companyId, UUID employeeId, long amount) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(APPEND_CREDIT_SQL)) {
+            statement.setObject(1, companyId);
+            statement.setObject(2, employeeId);
+            statement.setLong(3, amount);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.wedogift.backend.services;
+
+import com.wedogift.backend.dtos.AddShopDto;
+import com.wedogift.backend.dtos.CardCombinationDto;
+import com.wedogift.backend.dtos.CardCombinationsDto;
+import com.wedogift.backend.dtos.ShopCardDto;
+import com.wedogift.backend.entities.ShopCardEntity;
+import com.wedogift.backend.entities.ShopEntity;
+import com.wedogift.backend.exceptions.ForbiddenException;
+import com.wedogift.backend.exceptions.InvalidParameterException;
+import com.wedogift.backend.exceptions.ResourceNotFoundException;
+import com.wedogift.backend.repos.ShopCardsRepo;
+import com.wedogift.backend.repos.ShopsRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShopsServiceImplTest {
+
+    private static final String OWNER = "tesla@wedoostore.com";
+
+    @Mock
+    private ShopsRepo shopsRepo;
+    @Mock
+    private ShopCardsRepo shopCardsRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ShopsServiceImpl shopsService;
+
+    @BeforeEach
+    void setUp() {
+        shopsService = new ShopsServiceImpl(shopsRepo, shopCardsRepo, 1000, 100, 10, Duration.ofMinutes(5), transactionManager);
+    }
+
+    @Test
+    void searchCombination() {
+        when(shopsRepo.existsById(5L)).thenReturn(true);
+        when(shopCardsRepo.findByShopId(5L)).thenReturn(List.of(card(20, 2), card(22, 1), card(35, 1)));
+
+        CardCombinationsDto combinations = shopsService.searchCombination(5L, 40);
+
+        CardCombinationDto expected = CardCombinationDto.builder().value(40).cards(List.of(20, 20)).build();
+        assertEquals(CardCombinationsDto.builder().equal(expected).floor(expected).ceil(expected).build(), combinations);
+    }
+
+    @Test
+    void searchCombination_ShouldBuildTheCombinationsOncePerShop() {
+        when(shopsRepo.existsById(5L)).thenReturn(true);
+        when(shopCardsRepo.findByShopId(5L)).thenReturn(List.of(card(20, 2), card(22, 1), card(35, 1)));
+
+        CardCombinationsDto combinations = shopsService.searchCombination(5L, 30);
+        shopsService.searchCombination(5L, 60);
+
+        assertNull(combinations.equal());
+        assertEquals(CardCombinationDto.builder().value(22).cards(List.of(22)).build(), combinations.floor());
+        assertEquals(CardCombinationDto.builder().value(35).cards(List.of(35)).build(), combinations.ceil());
+        verify(shopCardsRepo, times(1)).findByShopId(5L);
+    }
+
+    @Test
+    void searchCombination_WithUnknownShop_ShouldThrowResourceNotFoundException() {
+        when(shopsRepo.existsById(6L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> shopsService.searchCombination(6L, 30));
+        verifyNoInteractions(shopCardsRepo);
+    }
+
+    @Test
+    void searchCombination_WithNegativeAmount_ShouldThrowInvalidParameterException() {
+        assertThrows(InvalidParameterException.class, () -> shopsService.searchCombination(5L, -1));
+        verifyNoInteractions(shopsRepo, shopCardsRepo);
+    }
+
+    @Test
+    void searchCombinations_ShouldReturnTheCombinationsByAmount() {
+        when(shopsRepo.existsById(5L)).thenReturn(true);
+        when(shopCardsRepo.findByShopId(5L)).thenReturn(List.of(card(20, 2), card(22, 1), card(35, 1)));
+
+        Map<Integer, CardCombinationsDto> combinations = shopsService.searchCombinations(5L, List.of(40, 30, 40));
+
+        assertEquals(List.of(30, 40), List.copyOf(combinations.keySet()));
+        assertEquals(shopsService.searchCombination(5L, 30), combinations.get(30));
+        assertEquals(shopsService.searchCombination(5L, 40), combinations.get(40));
+        verify(shopCardsRepo, times(1)).findByShopId(5L);
+    }
+
+    @Test
+    void searchCombinations_WithRange_ShouldReturnEveryAmount() {
+        when(shopsRepo.existsById(5L)).thenReturn(true);
+        when(shopCardsRepo.findByShopId(5L)).thenReturn(List.of(card(20, 2), card(22, 1), card(35, 1)));
+
+        Map<Integer, CardCombinationsDto> combinations = shopsService.searchCombinations(5L, 18, 23);
+
+        assertEquals(List.of(18, 19, 20, 21, 22, 23), List.copyOf(combinations.keySet()));
+        assertNull(combinations.get(18).floor());
+        assertEquals(20, combinations.get(18).ceil().value());
+        assertEquals(22, combinations.get(22).equal().value());
+        assertEquals(35, combinations.get(23).ceil().value());
+    }
+
+    @Test
+    void searchCombinations_WithTooManyAmounts_ShouldThrowInvalidParameterException() {
+        assertThrows(InvalidParameterException.class, () -> shopsService.searchCombinations(5L, 0, 100));
+        assertThrows(InvalidParameterException.class, () -> shopsService.searchCombinations(5L, 30, 20));
+        assertThrows(InvalidParameterException.class, () -> shopsService.searchCombinations(5L, List.of()));
+        assertThrows(InvalidParameterException.class, () -> shopsService.searchCombinations(5L, List.of(20, -1)));
+        verifyNoInteractions(shopsRepo, shopCardsRepo);
+    }
+
+    @Test
+    void sellCards_ShouldUpdateTheLoadedInventory() {
+        when(shopsRepo.existsById(5L)).thenReturn(true);
+        when(shopsRepo.existsByIdAndCompanyEmail(5L, OWNER)).thenReturn(true);
+        when(shopCardsRepo.findByShopId(5L)).thenReturn(List.of(card(20, 2), card(22, 1), card(35, 1)));
+        when(shopCardsRepo.removeQuantity(5L, 20, 1)).thenReturn(1);
+        when(shopCardsRepo.findQuantity(5L, 20)).thenReturn(1);
+
+        assertEquals(40, shopsService.searchCombination(5L, 40).equal().value());
+        ShopCardDto shopCardDto = shopsService.sellCards(OWNER, 5L, ShopCardDto.builder().value(20).quantity(1).build());
+
+        assertEquals(ShopCardDto.builder().value(20).quantity(1).build(), shopCardDto);
+        CardCombinationsDto combinations = shopsService.searchCombination(5L, 40);
+        assertNull(combinations.equal());
+        assertEquals(35, combinations.floor().value());
+        verify(shopCardsRepo, times(1)).findByShopId(5L);
+    }
+
+    @Test
+    void sellCards_WhenTheTransactionRollsBack_ShouldKeepTheLoadedInventory() {
+        when(shopsRepo.existsById(5L)).thenReturn(true);
+        when(shopsRepo.existsByIdAndCompanyEmail(5L, OWNER)).thenReturn(true);
+        when(shopCardsRepo.findByShopId(5L)).thenReturn(List.of(card(20, 2), card(22, 1), card(35, 1)));
+        when(shopCardsRepo.removeQuantity(5L, 20, 1)).thenReturn(1);
+        when(shopCardsRepo.findQuantity(5L, 20)).thenReturn(1);
+        assertEquals(40, shopsService.searchCombination(5L, 40).equal().value());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            shopsService.sellCards(OWNER, 5L, ShopCardDto.builder().value(20).quantity(1).build());
+            //not visible to the searches before the commit, and never after a rollback
+            assertEquals(40, shopsService.searchCombination(5L, 40).equal().value());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(40, shopsService.searchCombination(5L, 40).equal().value());
+        verify(shopCardsRepo, times(1)).findQuantity(5L, 20);
+    }
+
+    @Test
+    void sellCards_WhenTheTransactionCommits_ShouldUpdateTheLoadedInventory() {
+        when(shopsRepo.existsById(5L)).thenReturn(true);
+        when(shopsRepo.existsByIdAndCompanyEmail(5L, OWNER)).thenReturn(true);
+        when(shopCardsRepo.findByShopId(5L)).thenReturn(List.of(card(20, 2), card(22, 1), card(35, 1)));
+        when(shopCardsRepo.removeQuantity(5L, 20, 1)).thenReturn(1);
+        when(shopCardsRepo.findQuantity(5L, 20)).thenReturn(1);
+        assertEquals(40, shopsService.searchCombination(5L, 40).equal().value());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            shopsService.sellCards(OWNER, 5L, ShopCardDto.builder().value(20).quantity(1).build());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(shopsService.searchCombination(5L, 40).equal());
+    }
+
+    @Test
+    void saveShop_ShouldInvalidateTheLoadedInventoryOnceCommitted() {
+        when(shopsRepo.existsById(5L)).thenReturn(true);
+        when(shopCardsRepo.findByShopId(5L)).thenReturn(List.of(card(20, 2), card(22, 1), card(35, 1)));
+        when(shopsRepo.findById(5L)).thenReturn(Optional.of(ShopEntity.builder().id(5L).name("Shop").build()));
+        when(shopsRepo.saveAndFlush(any(ShopEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        shopsService.searchCombination(5L, 40);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            shopsService.saveShop(AddShopDto.builder().id(5L).name("Shop")
+                    .cards(List.of(ShopCardDto.builder().value(50).quantity(1).build())).build());
+            //not committed yet, the loaded inventory is still used
+            shopsService.searchCombination(5L, 40);
+            verify(shopCardsRepo, times(1)).findByShopId(5L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        shopsService.searchCombination(5L, 40);
+        verify(shopCardsRepo, times(2)).findByShopId(5L);
+    }
+
+    @Test
+    void sellCards_WithNotEnoughCards_ShouldThrowInvalidParameterException() {
+        when(shopsRepo.existsByIdAndCompanyEmail(5L, OWNER)).thenReturn(true);
+        when(shopCardsRepo.removeQuantity(5L, 20, 3)).thenReturn(0);
+
+        assertThrows(InvalidParameterException.class,
+                () -> shopsService.sellCards(OWNER, 5L, ShopCardDto.builder().value(20).quantity(3).build()));
+        verify(shopCardsRepo, never()).findQuantity(anyLong(), anyInt());
+    }
+
+    @Test
+    void restockCards() {
+        when(shopsRepo.existsByIdAndCompanyEmail(5L, OWNER)).thenReturn(true);
+        when(shopCardsRepo.findQuantity(5L, 50)).thenReturn(4);
+
+        ShopCardDto shopCardDto = shopsService.restockCards(OWNER, 5L, ShopCardDto.builder().value(50).quantity(4).build());
+
+        assertEquals(ShopCardDto.builder().value(50).quantity(4).build(), shopCardDto);
+        verify(shopCardsRepo).addQuantity(5L, 50, 4);
+    }
+
+    @Test
+    void restockCards_WithUnknownShop_ShouldThrowResourceNotFoundException() {
+        when(shopsRepo.existsById(6L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> shopsService.restockCards(OWNER, 6L, ShopCardDto.builder().value(50).quantity(4).build()));
+        verifyNoInteractions(shopCardsRepo);
+    }
+
+    @Test
+    void sellCards_WithAShopOfAnotherCompany_ShouldThrowForbiddenException() {
+        when(shopsRepo.existsByIdAndCompanyEmail(5L, "other@wedoostore.com")).thenReturn(false);
+        when(shopsRepo.existsById(5L)).thenReturn(true);
+
+        assertThrows(ForbiddenException.class,
+                () -> shopsService.sellCards("other@wedoostore.com", 5L, ShopCardDto.builder().value(20).quantity(1).build()));
+        verifyNoInteractions(shopCardsRepo);
+    }
+
+    private static ShopCardEntity card(int value, int quantity) {
+        return ShopCardEntity.builder().value(value).quantity(quantity).build();
+    }
+}